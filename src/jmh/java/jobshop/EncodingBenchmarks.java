@@ -0,0 +1,93 @@
+package jobshop;
+
+import jobshop.encodings.JobNumbers;
+import jobshop.encodings.ResourceOrder;
+import jobshop.encodings.Task;
+import jobshop.solvers.GreedyLRPTEST;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/** Throughput of the parsing of instances, and of the evaluation and conversion of the encodings.
+ *
+ * Every encoding holds the solution of the LRPT-EST greedy heuristic. Run with `./gradlew jmh`, which also reports the
+ * allocation rate of each benchmark (gc profiler). */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EncodingBenchmarks {
+
+    @Param({"ft10", "ta50", "ta80"})
+    public String instanceName;
+
+    private Path path;
+    private JobNumbers jobNumbers;
+    private ResourceOrder resourceOrder;
+    private Schedule schedule;
+
+    @Setup
+    public void setup() throws IOException {
+        path = Paths.get("instances", instanceName);
+        Instance instance = Instance.fromFile(path);
+        schedule = new GreedyLRPTEST().solve(instance, Long.MAX_VALUE).schedule;
+        jobNumbers = new JobNumbers(schedule);
+        resourceOrder = new ResourceOrder(schedule);
+    }
+
+    @Benchmark
+    public Instance instanceFromFile() throws IOException {
+        return Instance.fromFile(path);
+    }
+
+    @Benchmark
+    public Schedule jobNumbersToSchedule() {
+        return jobNumbers.toSchedule();
+    }
+
+    @Benchmark
+    public Schedule resourceOrderToSchedule() {
+        return resourceOrder.toSchedule();
+    }
+
+    @Benchmark
+    public JobNumbers scheduleToJobNumbers() {
+        return new JobNumbers(schedule);
+    }
+
+    @Benchmark
+    public ResourceOrder scheduleToResourceOrder() {
+        return new ResourceOrder(schedule);
+    }
+
+    @Benchmark
+    public ResourceOrder jobNumbersToResourceOrder() {
+        return new ResourceOrder(jobNumbers);
+    }
+
+    @Benchmark
+    public JobNumbers resourceOrderToJobNumbers() {
+        return new JobNumbers(resourceOrder);
+    }
+
+    @Benchmark
+    public ResourceOrder resourceOrderCopy() {
+        return resourceOrder.copy();
+    }
+
+    @Benchmark
+    public List<Task> scheduleCriticalPath() {
+        return schedule.criticalPath();
+    }
+
+    @Benchmark
+    public boolean scheduleIsValid() {
+        return schedule.isValid();
+    }
+}
@@ -0,0 +1,75 @@
+package jobshop.encodings;
+
+import jobshop.Instance;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/** Time to evaluate a population of random job numbers sequences, one sequence at a time with JobNumbers.makespan()
+ * or in lockstep batches with BatchEvaluator. */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BatchEvaluatorBenchmark {
+
+    static final int POPULATION_SIZE = 256;
+
+    @Param({"ft10", "ta50", "ta80"})
+    public String instanceName;
+
+    @Param({"8", "32", "128"})
+    public int batchSize;
+
+    private Instance instance;
+    private int[] population;
+    private int[] makespans;
+    private int[] machineFree;
+    private int[] jobFree;
+    private int[] nextTask;
+    private BatchEvaluator evaluator;
+
+    @Setup
+    public void setup() throws IOException {
+        instance = Instance.fromFile(Paths.get("instances", instanceName));
+        int n = instance.numJobs * instance.numTasks;
+        Random random = new Random(0);
+        population = new int[POPULATION_SIZE * n];
+        for(int p = 0 ; p < POPULATION_SIZE ; p++) {
+            for(int k = 0 ; k < n ; k++) {
+                population[p * n + k] = k % instance.numJobs;
+            }
+            for(int k = n - 1 ; k > 0 ; k--) {
+                int other = p * n + random.nextInt(k + 1);
+                int tmp = population[p * n + k];
+                population[p * n + k] = population[other];
+                population[other] = tmp;
+            }
+        }
+        makespans = new int[POPULATION_SIZE];
+        machineFree = new int[instance.numMachines];
+        jobFree = new int[instance.numJobs];
+        nextTask = new int[instance.numJobs];
+        evaluator = new BatchEvaluator(instance, batchSize);
+    }
+
+    @Benchmark
+    public int[] perSequence() {
+        int n = instance.numJobs * instance.numTasks;
+        for(int p = 0 ; p < POPULATION_SIZE ; p++) {
+            makespans[p] = JobNumbers.makespan(instance, population, p * n, machineFree, jobFree, nextTask);
+        }
+        return makespans;
+    }
+
+    @Benchmark
+    public int[] batched() {
+        evaluator.evaluate(population, 0, POPULATION_SIZE, makespans);
+        return makespans;
+    }
+}
@@ -0,0 +1,50 @@
+package jobshop.solvers;
+
+import jobshop.Instance;
+import jobshop.encodings.DisjunctiveGraph;
+import jobshop.encodings.MakespanCache;
+import jobshop.encodings.ResourceOrder;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/** Throughput of one iteration of DescentSolver (critical blocks, neighborhood and choice of the best neighbor),
+ * from the solution of the LRPT-EST greedy heuristic. */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DescentBenchmark {
+
+    @Param({"ft10", "ta50", "ta80"})
+    public String instanceName;
+
+    @Param({"N5", "N7"})
+    public Neighborhood neighborhood;
+
+    private DescentSolver solver;
+    private ResourceOrder current;
+    private DisjunctiveGraph graph;
+
+    @Setup
+    public void setup() throws IOException
+    {
+        Instance instance = Instance.fromFile(Paths.get("instances", instanceName));
+        solver = new DescentSolver(neighborhood);
+        graph = new DisjunctiveGraph(instance);
+        current = new ResourceOrder(new GreedyLRPTEST().solve(instance, Long.MAX_VALUE).schedule);
+    }
+
+    @Benchmark
+    public ResourceOrder descentIteration()
+    {
+        List<ResourceOrder> neighborhood = solver.generateNeighborhood(current, graph);
+        // a fresh cache, so that every neighbor is evaluated as in the first visit of a solution
+        return solver.getMinMakeSpan(neighborhood, new MakespanCache(neighborhood.size()));
+    }
+}
@@ -0,0 +1,16 @@
+package jobshop;
+
+/** Receives the new best solutions found by a solver, e.g. to record how fast it converges.
+ *
+ * It is called by the solver's threads while they search, so it should return quickly. Calls are serialized by the
+ * context and their makespans are strictly decreasing. */
+public interface IncumbentListener {
+
+    /**
+     * @param elapsedNanos time elapsed since the creation of the context
+     * @param makespan makespan of the new best solution
+     * @param iteration number of iterations of the solver when the solution was found; its meaning depends on the
+     *                  solver (moves, generations, nodes of a search tree...)
+     */
+    void improved(long elapsedNanos, int makespan, long iteration);
+}
@@ -5,7 +5,9 @@ import jobshop.encodings.Task;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.Arrays;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Scanner;
 import java.util.stream.Collectors;
 
@@ -45,6 +47,48 @@ public class Instance {
         throw new RuntimeException("No task targeting machine "+wanted_machine+" on job "+job);
     }
 
+    /** A lower bound of the makespan: the total duration of the longest job or the total load of the most loaded
+     * machine. */
+    public int lowerBound() {
+        int[] load = new int[numMachines];
+        int bound = 0;
+        for(int job = 0 ; job < numJobs ; job++) {
+            int length = 0;
+            for(int task = 0 ; task < numTasks ; task++) {
+                length += duration(job, task);
+                load[machine(job, task)] += duration(job, task);
+            }
+            bound = Math.max(bound, length);
+        }
+        for(int machine = 0 ; machine < numMachines ; machine++) {
+            bound = Math.max(bound, load[machine]);
+        }
+        return bound;
+    }
+
+    /** 64-bit FNV-1a hash of the dimensions, machines and durations of the instance: two instances with the same
+     * content have the same hash, whatever the file they were read from. */
+    public long contentHash() {
+        long hash = 0xcbf29ce484222325L;
+        hash = mix(hash, numJobs);
+        hash = mix(hash, numTasks);
+        for(int job = 0 ; job < numJobs ; job++) {
+            for(int task = 0 ; task < numTasks ; task++) {
+                hash = mix(hash, machines[job][task]);
+                hash = mix(hash, durations[job][task]);
+            }
+        }
+        return hash;
+    }
+
+    private static long mix(long hash, int value) {
+        for(int shift = 0 ; shift < 32 ; shift += 8) {
+            hash ^= (value >>> shift) & 0xff;
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+
     Instance(int numJobs, int numTasks) {
         this.numJobs = numJobs;
         this.numTasks = numTasks;
@@ -56,8 +100,17 @@ public class Instance {
 
     /** Parses a instance from a file. */
     public static Instance fromFile(Path path) throws IOException {
-        Iterator<String> lines = Files.readAllLines(path).stream()
-                .filter(l -> !l.startsWith("#"))
+        return fromLines(Files.readAllLines(path));
+    }
+
+    /** Parses a instance given in the format of the instance files. */
+    public static Instance fromString(String text) {
+        return fromLines(Arrays.asList(text.split("\\r?\\n")));
+    }
+
+    private static Instance fromLines(List<String> allLines) {
+        Iterator<String> lines = allLines.stream()
+                .filter(l -> !l.startsWith("#") && !l.trim().isEmpty())
                 .collect(Collectors.toList())
                 .iterator();
 
@@ -1,36 +1,41 @@
 package jobshop;
 
-import jobshop.solvers.*;
+import jobshop.encodings.ResourceOrder;
+import jobshop.solvers.PortfolioSolver;
 import net.sourceforge.argparse4j.ArgumentParsers;
+import net.sourceforge.argparse4j.impl.Arguments;
 import net.sourceforge.argparse4j.inf.ArgumentParser;
 import net.sourceforge.argparse4j.inf.ArgumentParserException;
 import net.sourceforge.argparse4j.inf.Namespace;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
 import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.HashMap;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 
 public class Main {
 
-    /** All solvers available in this program */
-    private static HashMap<String, Solver> solvers;
-    static {
-        solvers = new HashMap<>();
-        solvers.put("basic", new BasicSolver());
-        solvers.put("random", new RandomSolver());
-        solvers.put("spt", new GreedySPT());
-        solvers.put("lrpt", new GreedyLRPT());
-        solvers.put("sptest", new GreedySPTEST());
-        solvers.put("lrptest", new GreedyLRPTEST());
-        solvers.put("descent", new DescentSolver());
-        solvers.put("taboo", new TabouSolver());
+    /** All solvers available in this program, registered by the SolverProviders of the class path (see
+     * BuiltinSolvers). Each run uses a new solver, built for a given number of cores. */
+    private static final SolverRegistry solvers = SolverRegistry.load();
 
-    }
 
 
     public static void main(String[] args) {
@@ -44,17 +49,61 @@ public class Main {
                 .help("Solver timeout in seconds for each instance");
         parser.addArgument("--solver")
                 .nargs("+")
-                .required(true)
-                .help("Solver(s) to use (space separated if more than one)");
+                .help("Solver(s) to use (space separated if more than one). Required unless --server is given");
 
         parser.addArgument("--instance")
                 .nargs("+")
-                .required(true)
-                .help("Instance(s) to solve (space separated if more than one)");
+                .help("Instance(s) to solve (space separated if more than one). Required unless --server is given");
+        parser.addArgument("--portfolio")
+                .nargs("+")
+                .setDefault(Arrays.asList("taboo-relinking", "annealing", "bnb"))
+                .help("Solvers run concurrently by the portfolio solver, until one of them reaches the lower bound");
+        parser.addArgument("--warmup")
+                .setDefault(0.0)
+                .type(Double.class)
+                .help("Seconds for which each solver runs on the largest instance of the batch before the timed runs, " +
+                        "so that their code is compiled by the JIT. The cost of the warm-up is reported separately");
+        parser.addArgument("--seeds")
+                .setDefault(1)
+                .type(Integer.class)
+                .help("Number of runs of each solver on each instance, with seeds 0 to SEEDS-1. With more than one " +
+                        "seed, reports the min, median, mean and standard deviation of the makespan and runtime");
+        parser.addArgument("--parallel")
+                .type(Integer.class)
+                .help("Number of runs executed concurrently, largest instances first. " +
+                        "The available cores are shared equally between them (default: min(SEEDS, cores))");
+        parser.addArgument("--results")
+                .help("File to which a JSON record is appended after each run (instance, solver, seed, runtime, " +
+                        "makespan, gap, exit cause, counters of the solver and time to best)");
+        parser.addArgument("--resume")
+                .action(Arguments.storeTrue())
+                .help("Skip the runs already recorded in the results file, and report their recorded results");
+        parser.addArgument("--store")
+                .help("Directory in which the best solution of each instance is kept across batches: the solution " +
+                        "of a run is stored if it improves on the stored one");
+        parser.addArgument("--warm-start")
+                .action(Arguments.storeTrue())
+                .help("Start the descent, taboo and ils solvers from the solution stored for the instance, if any");
+        parser.addArgument("--server")
+                .action(Arguments.storeTrue())
+                .help("Stay resident and serve solve requests, one JSON object per line, read from the standard " +
+                        "input (or from the connections to --port), and write each result as a JSON line as soon as " +
+                        "it is available. See the documentation of SolverServer for the format");
+        parser.addArgument("--port")
+                .type(Integer.class)
+                .help("With --server, serve the connections to this port of the loopback interface instead of the " +
+                        "standard input");
+        parser.addArgument("--trace")
+                .help("Directory in which to write the time, makespan and iteration of each improvement of the best " +
+                        "solution, in a file {instance}-{solver}.csv per run ({instance}-{solver}-{seed}.csv with " +
+                        "several seeds)");
 
         Namespace ns = null;
         try {
             ns = parser.parseArgs(args);
+            if(!ns.getBoolean("server") && (ns.getList("solver") == null || ns.getList("instance") == null)) {
+                throw new ArgumentParserException("arguments --solver and --instance are required", parser);
+            }
         } catch (ArgumentParserException e) {
             parser.handleError(e);
             System.exit(1);
@@ -64,12 +113,48 @@ public class Main {
 
         long solveTimeMs = ns.getLong("timeout") * 1000;
 
+        List<String> portfolio = ns.getList("portfolio");
+        for(String solverName : portfolio) {
+            if(!solvers.contains(solverName)) {
+                System.err.println("ERROR: Solver \"" + solverName + "\" of the portfolio is not avalaible.");
+                System.err.println("       Available solvers: " + solvers.names().toString());
+                System.exit(1);
+            }
+        }
+        solvers.register("portfolio", cores -> {
+            List<Solver> members = new ArrayList<>();
+            for(String solverName : portfolio) {
+                members.add(solvers.create(solverName, Math.max(1, cores / portfolio.size())));
+            }
+            return new PortfolioSolver(members);
+        });
+
+        if(ns.getBoolean("server")) {
+            int workers = ns.getInt("parallel") != null ? Math.max(1, ns.getInt("parallel"))
+                    : Runtime.getRuntime().availableProcessors();
+            SolverServer server = new SolverServer(solvers, workers);
+            try {
+                if(ns.getInt("port") != null) {
+                    server.listen(ns.getInt("port"));
+                } else {
+                    server.serve(new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8)),
+                            new OutputStreamWriter(System.out, StandardCharsets.UTF_8));
+                }
+            } catch (IOException | InterruptedException e) {
+                e.printStackTrace();
+                System.exit(1);
+            } finally {
+                server.shutdown();
+            }
+            return;
+        }
+
         List<String> solversToTest = ns.getList("solver");
         for(String solverName : solversToTest) {
-            if(!solvers.containsKey(solverName)) {
+            if(!solvers.contains(solverName)) {
                 System.err.println("ERROR: Solver \"" + solverName + "\" is not avalaible.");
-                System.err.println("       Available solvers: " + solvers.keySet().toString());
-                System.err.println("       You can provide your own solvers by adding them to the `Main.solvers` HashMap.");
+                System.err.println("       Available solvers: " + solvers.names().toString());
+                System.err.println("       You can provide your own solvers with a jobshop.SolverProvider (see BuiltinSolvers).");
                 System.exit(1);
             }
         }
@@ -87,48 +172,120 @@ public class Main {
 
         float[] runtimes = new float[solversToTest.size()];
         float[] distances = new float[solversToTest.size()];
+        double[] evaluationRates = new double[solversToTest.size()];
+        float[] timesToBest = new float[solversToTest.size()];
+
+        Path traceDir = ns.getString("trace") == null ? null : Paths.get(ns.getString("trace"));
+
+        if(ns.getBoolean("resume") && ns.getString("results") == null) {
+            System.err.println("ERROR: --resume requires a results file (--results)");
+            System.exit(1);
+        }
+
+        if(ns.getBoolean("warm_start") && ns.getString("store") == null) {
+            System.err.println("ERROR: --warm-start requires a solution store (--store)");
+            System.exit(1);
+        }
+
+        int numSeeds = Math.max(1, ns.getInt("seeds"));
+        int availableCores = Runtime.getRuntime().availableProcessors();
+        // the runs of the different seeds are independent: by default, they share the cores
+        int parallel = ns.getInt("parallel") != null ? Math.max(1, ns.getInt("parallel"))
+                : Math.max(1, Math.min(numSeeds, availableCores));
+        int cores = Math.max(1, availableCores / parallel);
 
         try {
+            if(traceDir != null) {
+                Files.createDirectories(traceDir);
+            }
+
+            ResultsLog log = ns.getString("results") == null ? null : new ResultsLog(Paths.get(ns.getString("results")));
+            Map<String, ResultsLog.Record> done = ns.getBoolean("resume") ? log.read() : Collections.emptyMap();
+            SolutionStore store = ns.getString("store") == null ? null : new SolutionStore(Paths.get(ns.getString("store")));
+            boolean warmStart = ns.getBoolean("warm_start");
+
+            List<Instance> loaded = new ArrayList<>();
+            List<Integer> startOrder = new ArrayList<>();
+            for(String instanceName : instances) {
+                startOrder.add(loaded.size());
+                loaded.add(Instance.fromFile(Paths.get("instances/", instanceName)));
+            }
+            if(parallel > 1) {
+                // largest instances first, so that the batch does not end with a few long runs
+                startOrder.sort(Comparator.comparingInt(i -> -loaded.get(i).numJobs * loaded.get(i).numTasks));
+            }
+
+            long warmupMs = (long) (ns.getDouble("warmup") * 1000);
+            if(warmupMs > 0) {
+                int largest = 0;
+                for(int i = 1 ; i < loaded.size() ; i++) {
+                    if(loaded.get(i).numJobs * loaded.get(i).numTasks
+                            > loaded.get(largest).numJobs * loaded.get(largest).numTasks) {
+                        largest = i;
+                    }
+                }
+                warmUp(output, instances.get(largest), loaded.get(largest), solversToTest, cores, warmupMs);
+            }
+
+            // runs[(i * numSolvers + s) * numSeeds + seed]: run of the s-th solver on the i-th instance
+            int numSolvers = solversToTest.size();
+            List<Future<ResultsLog.Record>> runs =
+                    new ArrayList<>(Collections.nCopies(instances.size() * numSolvers * numSeeds, null));
+            ExecutorService executor = Executors.newFixedThreadPool(parallel);
+            for(int i : startOrder) {
+                for(int solverId = 0 ; solverId < numSolvers ; solverId++) {
+                    for(int seed = 0 ; seed < numSeeds ; seed++) {
+                        String instanceName = instances.get(i);
+                        Instance instance = loaded.get(i);
+                        String solverName = solversToTest.get(solverId);
+                        long runSeed = seed;
+                        Path trace = traceDir == null ? null : traceDir.resolve(instanceName + "-" + solverName
+                                + (numSeeds > 1 ? "-" + seed : "") + ".csv");
+                        ResultsLog.Record previous = done.get(ResultsLog.Record.key(instanceName, solverName, seed));
+                        runs.set((i * numSolvers + solverId) * numSeeds + seed, previous != null
+                                ? CompletableFuture.completedFuture(previous)
+                                : executor.submit(() -> run(instanceName, instance, solverName, runSeed, cores,
+                                                            solveTimeMs, trace, log, store, warmStart)));
+                    }
+                }
+            }
+            executor.shutdown();
+
+            if(numSeeds > 1) {
+                printSeedStatistics(output, instances, loaded, solversToTest, numSeeds, runs);
+                return;
+            }
+
             output.print(  "                         ");
             for(String s : solversToTest)
-                output.printf("%-30s", s);
+                output.printf("%-48s", s);
             output.println();
             output.print("instance size  best      ");
             for(String s : solversToTest) {
-                output.print("runtime makespan ecart        ");
+                output.print("runtime makespan ecart   evals/s     ttb        ");
             }
             output.println();
 
 
-            for(String instanceName : instances) {
+            for(int i = 0 ; i < instances.size() ; i++) {
+                String instanceName = instances.get(i);
                 int bestKnown = BestKnownResult.of(instanceName);
-
-
-                Path path = Paths.get("instances/", instanceName);
-                Instance instance = Instance.fromFile(path);
+                Instance instance = loaded.get(i);
 
                 output.printf("%-8s %-5s %4d      ",instanceName, instance.numJobs +"x"+instance.numTasks, bestKnown);
 
-                for(int solverId = 0 ; solverId < solversToTest.size() ; solverId++) {
-                    String solverName = solversToTest.get(solverId);
-                    Solver solver = solvers.get(solverName);
-                    long start = System.currentTimeMillis();
-                    long deadline = System.currentTimeMillis() + solveTimeMs;
-                    Result result = solver.solve(instance, deadline);
-                    long runtime = System.currentTimeMillis() - start;
-
-                    if(!result.schedule.isValid()) {
-                        System.err.println("ERROR: solver returned an invalid schedule");
-                        System.exit(1);
-                    }
-
-                    assert result.schedule.isValid();
-                    int makespan = result.schedule.makespan();
+                for(int solverId = 0 ; solverId < numSolvers ; solverId++) {
+                    ResultsLog.Record run = runs.get(i * numSolvers + solverId).get();
+                    long runtime = run.runtime;
+                    int makespan = run.makespan;
                     float dist = 100f * (makespan - bestKnown) / (float) bestKnown;
                     runtimes[solverId] += (float) runtime / (float) instances.size();
                     distances[solverId] += dist / (float) instances.size();
+                    evaluationRates[solverId] += run.evaluationsPerSecond() / instances.size();
+                    timesToBest[solverId] += (float) run.timeToBest / (float) instances.size();
 
-                    output.printf("%7d %8s %5.1f        ", runtime, makespan, dist);
+                    output.printf("%7d %8s %5.1f %9.0f %7d        ", runtime, makespan, dist,
+                            run.evaluationsPerSecond(), run.timeToBest);
                     output.flush();
                 }
                 output.println();
@@ -138,7 +295,8 @@ public class Main {
 
             output.printf("%-8s %-5s %4s      ", "AVG", "-", "-");
             for(int solverId = 0 ; solverId < solversToTest.size() ; solverId++) {
-                output.printf("%7.1f %8s %5.1f        ", runtimes[solverId], "-", distances[solverId]);
+                output.printf("%7.1f %8s %5.1f %9.0f %7.1f        ", runtimes[solverId], "-", distances[solverId],
+                        evaluationRates[solverId], timesToBest[solverId]);
             }
 
 
@@ -148,4 +306,141 @@ public class Main {
             System.exit(1);
         }
     }
+
+    /** Solves the instance with a new solver built for the given number of cores. Writes the trace of its
+     * improvements if a file is given, and its record if a log is given. If a store is given, the solution is
+     * offered to it, and the run starts from the stored solution if `warmStart` is set. */
+    private static ResultsLog.Record run(String instanceName, Instance instance, String solverName, long seed,
+                                         int cores, long solveTimeMs, Path traceFile, ResultsLog log,
+                                         SolutionStore store, boolean warmStart) throws IOException {
+        Solver solver = solvers.create(solverName, cores);
+        ResourceOrder stored = store != null && warmStart ? store.load(instance) : null;
+        Schedule warmStartSolution = stored == null ? null : stored.toSchedule();
+        long start = System.currentTimeMillis();
+        long deadline = start + solveTimeMs;
+        // improvements of the best solution: elapsed nanoseconds, makespan and iteration
+        List<long[]> trace = new ArrayList<>();
+        IncumbentListener listener = traceFile == null ? null :
+                (elapsed, makespan, iteration) -> trace.add(new long[] {elapsed, makespan, iteration});
+        Result result = solver.solve(instance, new SolverContext(deadline, 0, listener, seed, warmStartSolution));
+        long runtime = System.currentTimeMillis() - start;
+
+        if(!result.schedule.isValid()) {
+            System.err.println("ERROR: solver returned an invalid schedule");
+            System.exit(1);
+        }
+
+        if(traceFile != null) {
+            writeTrace(traceFile, trace);
+        }
+        if(store != null) {
+            store.offer(result.schedule);
+        }
+        int bestKnown = BestKnownResult.of(instanceName);
+        int makespan = result.schedule.makespan();
+        float dist = 100f * (makespan - bestKnown) / (float) bestKnown;
+        ResultsLog.Record record = new ResultsLog.Record(instanceName, solverName, seed, runtime, makespan, dist,
+                result.cause, result.stats);
+        if(log != null) {
+            log.append(record);
+        }
+        return record;
+    }
+
+    /** Runs each solver for the given time on the instance, one after the other, and prints the time spent. The
+     * results are discarded: these runs only give the JIT the opportunity to compile the code of the solvers, so that
+     * the first timed runs are not penalized by interpreted code. */
+    private static void warmUp(PrintStream output, String instanceName, Instance instance, List<String> solverNames,
+                               int cores, long warmupMs) {
+        long total = System.currentTimeMillis();
+        StringBuilder costs = new StringBuilder();
+        for(String solverName : solverNames) {
+            long start = System.currentTimeMillis();
+            solvers.create(solverName, cores).solve(instance, new SolverContext(start + warmupMs));
+            costs.append(String.format(" %s %d ms,", solverName, System.currentTimeMillis() - start));
+        }
+        output.printf(Locale.ROOT, "warm-up on %s:%s total %.1f s%n%n", instanceName, costs,
+                (System.currentTimeMillis() - total) / 1000.0);
+    }
+
+    /** Prints one line per instance and solver with the statistics of the makespan and runtime over the seeds,
+     * followed by the average over all instances of the mean distance to the best known makespan and of the mean
+     * runtime of each solver. */
+    private static void printSeedStatistics(PrintStream output, List<String> instances, List<Instance> loaded,
+                                            List<String> solversToTest, int numSeeds,
+                                            List<Future<ResultsLog.Record>> runs) throws Exception {
+        int numSolvers = solversToTest.size();
+        double[] distances = new double[numSolvers];
+        double[] runtimes = new double[numSolvers];
+
+        output.printf("%-42s%-36s%s%n", "", "makespan (" + numSeeds + " seeds)", "runtime");
+        output.printf("%-42s%6s %7s %7s %6s %6s %8s %7s %7s %6s%n", "instance size  best      solver",
+                "min", "median", "mean", "std", "ecart", "min", "median", "mean", "std");
+        for(int i = 0 ; i < instances.size() ; i++) {
+            String instanceName = instances.get(i);
+            int bestKnown = BestKnownResult.of(instanceName);
+            Instance instance = loaded.get(i);
+            for(int solverId = 0 ; solverId < numSolvers ; solverId++) {
+                double[] makespans = new double[numSeeds];
+                double[] times = new double[numSeeds];
+                for(int seed = 0 ; seed < numSeeds ; seed++) {
+                    ResultsLog.Record run = runs.get((i * numSolvers + solverId) * numSeeds + seed).get();
+                    makespans[seed] = run.makespan;
+                    times[seed] = run.runtime;
+                }
+                Summary makespan = new Summary(makespans);
+                Summary runtime = new Summary(times);
+                double dist = 100 * (makespan.mean - bestKnown) / bestKnown;
+                distances[solverId] += dist / instances.size();
+                runtimes[solverId] += runtime.mean / instances.size();
+
+                output.printf("%-8s %-5s %4d      %-15s %6.0f %7.1f %7.1f %6.1f %6.1f %8.0f %7.1f %7.1f %6.1f%n",
+                        instanceName, instance.numJobs + "x" + instance.numTasks, bestKnown, solversToTest.get(solverId),
+                        makespan.min, makespan.median, makespan.mean, makespan.std, dist,
+                        runtime.min, runtime.median, runtime.mean, runtime.std);
+                output.flush();
+            }
+        }
+        for(int solverId = 0 ; solverId < numSolvers ; solverId++) {
+            output.printf("%-8s %-5s %4s      %-15s %6s %7s %7s %6s %6.1f %8s %7s %7.1f %6s%n",
+                    "AVG", "-", "-", solversToTest.get(solverId), "-", "-", "-", "-", distances[solverId],
+                    "-", "-", runtimes[solverId], "-");
+        }
+    }
+
+    /** Min, median, mean and sample standard deviation of a non-empty sample. */
+    static class Summary {
+        final double min;
+        final double median;
+        final double mean;
+        final double std;
+
+        Summary(double[] values) {
+            double[] sorted = values.clone();
+            Arrays.sort(sorted);
+            int n = sorted.length;
+            min = sorted[0];
+            median = n % 2 == 1 ? sorted[n / 2] : (sorted[n / 2 - 1] + sorted[n / 2]) / 2;
+            double sum = 0;
+            for(double v : sorted) {
+                sum += v;
+            }
+            mean = sum / n;
+            double squares = 0;
+            for(double v : sorted) {
+                squares += (v - mean) * (v - mean);
+            }
+            std = n > 1 ? Math.sqrt(squares / (n - 1)) : 0;
+        }
+    }
+
+    /** Writes the improvements of a run as CSV lines: time in milliseconds since the start, makespan, iteration. */
+    private static void writeTrace(Path file, List<long[]> trace) throws IOException {
+        List<String> lines = new ArrayList<>();
+        lines.add("time_ms,makespan,iteration");
+        for(long[] improvement : trace) {
+            lines.add(String.format(Locale.ROOT, "%.3f,%d,%d", improvement[0] / 1e6, improvement[1], improvement[2]));
+        }
+        Files.write(file, lines);
+    }
 }
@@ -5,9 +5,14 @@ import java.util.Optional;
 public class Result {
 
     public Result(Instance instance, Schedule schedule, ExitCause cause) {
+        this(instance, schedule, cause, new SolverStats());
+    }
+
+    public Result(Instance instance, Schedule schedule, ExitCause cause, SolverStats stats) {
         this.instance = instance;
         this.schedule = schedule;
         this.cause = cause;
+        this.stats = stats;
     }
 
     public enum ExitCause {
@@ -17,6 +22,8 @@ public class Result {
     public final Instance instance;
     public final Schedule schedule;
     public final ExitCause cause;
+    /** work done by the solver to find this result */
+    public final SolverStats stats;
 
 
 }
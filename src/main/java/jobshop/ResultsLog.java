@@ -0,0 +1,188 @@
+package jobshop;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/** Append-only log of the runs of a batch, with one JSON object per line, e.g.
+ * {"instance":"ft10","solver":"taboo","seed":0,"runtime":1000,"makespan":950,"gap":2.15,"cause":"Timeout",
+ *  "evaluations":1234567,"neighbors":1234000,"iterations":5000,"improvements":42,"restarts":3,"accepted":0,
+ *  "timeToBest":640,"movesPerSecond":1234000,"iterationsPerSecond":5000,"acceptanceRate":0.000}
+ *
+ * Each record is written as soon as its run finishes, so that an interrupted batch keeps all its completed runs.
+ * Lines that cannot be parsed, such as the last one of a batch that crashed while writing it, are ignored.
+ */
+public class ResultsLog {
+
+    /** Outcome of one run of a solver on an instance. */
+    public static class Record {
+        public final String instance;
+        public final String solver;
+        public final long seed;
+        /** in milliseconds */
+        public final long runtime;
+        public final int makespan;
+        /** distance to the best known makespan, in percent */
+        public final float gap;
+        public final Result.ExitCause cause;
+        /** counters of the solver (see SolverStats), 0 for the ones it does not fill */
+        public final long evaluations;
+        public final long neighbors;
+        public final long iterations;
+        public final long improvements;
+        public final long restarts;
+        public final long accepted;
+        /** time at which the best solution was found, in milliseconds */
+        public final long timeToBest;
+
+        public Record(String instance, String solver, long seed, long runtime, int makespan, float gap,
+                      Result.ExitCause cause, long evaluations, long neighbors, long iterations, long improvements,
+                      long restarts, long accepted, long timeToBest) {
+            this.instance = instance;
+            this.solver = solver;
+            this.seed = seed;
+            this.runtime = runtime;
+            this.makespan = makespan;
+            this.gap = gap;
+            this.cause = cause;
+            this.evaluations = evaluations;
+            this.neighbors = neighbors;
+            this.iterations = iterations;
+            this.improvements = improvements;
+            this.restarts = restarts;
+            this.accepted = accepted;
+            this.timeToBest = timeToBest;
+        }
+
+        /** Evaluations per second of the run. */
+        public double evaluationsPerSecond() {
+            return runtime == 0 ? 0 : evaluations * 1000.0 / runtime;
+        }
+
+        /** Neighbors generated (moves considered) per second of the run. */
+        public double movesPerSecond() {
+            return runtime == 0 ? 0 : neighbors * 1000.0 / runtime;
+        }
+
+        /** Iterations per second of the run: generations per second for the genetic solver. */
+        public double iterationsPerSecond() {
+            return runtime == 0 ? 0 : iterations * 1000.0 / runtime;
+        }
+
+        /** Proportion of the moves that were accepted, 0 for solvers that do not count them. */
+        public double acceptanceRate() {
+            return neighbors == 0 ? 0 : (double) accepted / neighbors;
+        }
+
+        /** Identifies the run: two records with the same key are two results of the same run. */
+        public String key() {
+            return key(instance, solver, seed);
+        }
+
+        public static String key(String instance, String solver, long seed) {
+            return instance + " " + solver + " " + seed;
+        }
+
+        /** Record of a run whose counters are in the given statistics. */
+        public Record(String instance, String solver, long seed, long runtime, int makespan, float gap,
+                      Result.ExitCause cause, SolverStats stats) {
+            this(instance, solver, seed, runtime, makespan, gap, cause, stats.evaluations(),
+                    stats.neighborsGenerated(), stats.iterations(), stats.improvements(), stats.restarts(),
+                    stats.accepted(), stats.timeToBestNanos() / 1000000);
+        }
+
+        String toJson() {
+            return String.format(Locale.ROOT,
+                    "{\"instance\":\"%s\",\"solver\":\"%s\",\"seed\":%d,\"runtime\":%d,\"makespan\":%d," +
+                            "\"gap\":%.2f,\"cause\":\"%s\",\"evaluations\":%d,\"neighbors\":%d,\"iterations\":%d," +
+                            "\"improvements\":%d,\"restarts\":%d,\"accepted\":%d,\"timeToBest\":%d," +
+                            "\"movesPerSecond\":%.0f,\"iterationsPerSecond\":%.0f,\"acceptanceRate\":%.3f}",
+                    instance, solver, seed, runtime, makespan, gap, cause, evaluations, neighbors, iterations,
+                    improvements, restarts, accepted, timeToBest, movesPerSecond(), iterationsPerSecond(),
+                    acceptanceRate());
+        }
+
+        private static final Pattern FIELD = Pattern.compile("\"(\\w+)\":(\"[^\"]*\"|[^,}]*)");
+
+        /** Parses a line written by toJson(). Returns null if the line is malformed. The counters are optional, as
+         * they are missing from the records of older batches; the rates are computed again from them. */
+        static Record parse(String line) {
+            line = line.trim();
+            if(!line.startsWith("{") || !line.endsWith("}")) {
+                return null;
+            }
+            Map<String, String> fields = new HashMap<>();
+            Matcher m = FIELD.matcher(line);
+            while(m.find()) {
+                fields.put(m.group(1), m.group(2).replace("\"", ""));
+            }
+            try {
+                return new Record(fields.get("instance"), fields.get("solver"),
+                        Long.parseLong(fields.get("seed")),
+                        Long.parseLong(fields.get("runtime")),
+                        Integer.parseInt(fields.get("makespan")),
+                        Float.parseFloat(fields.get("gap")),
+                        Result.ExitCause.valueOf(fields.get("cause")),
+                        Long.parseLong(fields.getOrDefault("evaluations", "0")),
+                        Long.parseLong(fields.getOrDefault("neighbors", "0")),
+                        Long.parseLong(fields.getOrDefault("iterations", "0")),
+                        Long.parseLong(fields.getOrDefault("improvements", "0")),
+                        Long.parseLong(fields.getOrDefault("restarts", "0")),
+                        Long.parseLong(fields.getOrDefault("accepted", "0")),
+                        Long.parseLong(fields.getOrDefault("timeToBest", "0")));
+            } catch (RuntimeException e) {
+                // missing or invalid field
+                return null;
+            }
+        }
+    }
+
+    private final Path file;
+
+    /** Opens the log, creating the file if needed. */
+    public ResultsLog(Path file) throws IOException {
+        this.file = file;
+        if(Files.exists(file) && Files.size(file) > 0) {
+            // terminate a line cut by a crash, so that the next record starts on its own line
+            try(RandomAccessFile raf = new RandomAccessFile(file.toFile(), "rw")) {
+                raf.seek(raf.length() - 1);
+                if(raf.read() != '\n') {
+                    raf.write('\n');
+                }
+            }
+        }
+    }
+
+    /** Appends a record to the file. Can be called concurrently by the threads of a batch. */
+    public synchronized void append(Record record) throws IOException {
+        try(Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+            writer.write(record.toJson());
+            writer.write('\n');
+        }
+    }
+
+    /** Records of the file by key; the last one wins if a run appears several times. */
+    public synchronized Map<String, Record> read() throws IOException {
+        Map<String, Record> records = new HashMap<>();
+        if(!Files.exists(file)) {
+            return records;
+        }
+        for(String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+            Record record = Record.parse(line);
+            if(record != null) {
+                records.put(record.key(), record);
+            }
+        }
+        return records;
+    }
+}
@@ -9,19 +9,38 @@ import java.util.stream.IntStream;
 public class Schedule {
     public final Instance pb;
     // start times of each job and task
-    // times[j][i] is the start time of task (j,i) : i^th task of the j^th job
-    final int[][] times;
+    // times[j * numTasks + i] is the start time of task (j,i) : i^th task of the j^th job
+    final int[] times;
 
+    /** makespan, computed by the first call to makespan() (-1 before) */
+    private int makespan = -1;
+
+    /** Creates a schedule from the start times of each task: times[j][i] is the start time of the i^th task of the
+     * j^th job. The start times are copied. */
     public Schedule(Instance pb, int[][] times) {
         this.pb = pb;
-        this.times = new int[pb.numJobs][];
+        this.times = new int[pb.numJobs * pb.numTasks];
         for(int j = 0 ; j < pb.numJobs ; j++) {
-            this.times[j] = Arrays.copyOf(times[j], pb.numTasks);
+            System.arraycopy(times[j], 0, this.times, j * pb.numTasks, pb.numTasks);
+        }
+    }
+
+    private Schedule(Instance pb, int[] times) {
+        this.pb = pb;
+        this.times = times;
+    }
+
+    /** Creates a schedule in which task (j,i) starts at times[j * numTasks + i], without copying the array: the
+     * schedule takes ownership of it, and the caller must not modify it afterwards. */
+    public static Schedule wrap(Instance pb, int[] times) {
+        if(times.length != pb.numJobs * pb.numTasks) {
+            throw new IllegalArgumentException("Expected " + pb.numJobs * pb.numTasks + " start times");
         }
+        return new Schedule(pb, times);
     }
 
     public int startTime(int job, int task) {
-        return times[job][task];
+        return times[job * pb.numTasks + task];
     }
 
     /** Returns true if this schedule is valid (no constraint is violated) */
@@ -56,11 +75,32 @@ public class Schedule {
     }
 
     public int makespan() {
-        int max = -1;
-        for(int j = 0 ; j<pb.numJobs ; j++) {
-            max = Math.max(max, startTime(j, pb.numTasks-1) + pb.duration(j, pb.numTasks -1));
+        // a schedule is immutable: computing it twice in concurrent calls is harmless
+        if(makespan < 0) {
+            int max = -1;
+            for(int j = 0 ; j<pb.numJobs ; j++) {
+                max = Math.max(max, startTime(j, pb.numTasks-1) + pb.duration(j, pb.numTasks -1));
+            }
+            makespan = max;
+        }
+        return makespan;
+    }
+
+    /** All tasks sorted by start time, ties broken by job then task number. Task (j,i) is given as j * numTasks + i.
+     *
+     * In a valid schedule, the tasks of each job and of each machine appear in their execution order. */
+    public int[] tasksByStartTime() {
+        // sort (start time, task) pairs packed in longs, to avoid boxing and comparators
+        long[] keys = new long[times.length];
+        for(int op = 0 ; op < times.length ; op++) {
+            keys[op] = ((long) times[op] << 32) | op;
+        }
+        Arrays.sort(keys);
+        int[] ops = new int[times.length];
+        for(int i = 0 ; i < keys.length ; i++) {
+            ops[i] = (int) keys[i];
         }
-        return max;
+        return ops;
     }
 
     public int startTime(Task task) {
@@ -0,0 +1,116 @@
+package jobshop;
+
+import jobshop.encodings.ResourceOrder;
+import jobshop.encodings.Task;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+
+/** Directory keeping the best known solution of each instance, so that successive batches can start from the
+ * solutions of the previous ones.
+ *
+ * The solution of an instance is stored in the file `{hash}.ro`, where hash is the content hash of the instance (see
+ * Instance.contentHash()): renaming an instance file keeps its solution, and changing its content discards it. The
+ * file holds a resource order in binary form:
+ *
+ *   int magic ("JSRO"), int numJobs, int numMachines, int makespan,
+ *   then for each machine the numJobs jobs in their order on the machine, one byte each (two if more than 256 jobs)
+ *
+ * The task of a job on a machine is given by the instance, so this is all that is needed to rebuild the order.
+ */
+public class SolutionStore {
+
+    private static final int MAGIC = 0x4A53524F;
+
+    private final Path directory;
+
+    /** Opens the store, creating its directory if needed. */
+    public SolutionStore(Path directory) throws IOException {
+        this.directory = directory;
+        Files.createDirectories(directory);
+    }
+
+    private Path file(Instance instance) {
+        return directory.resolve(String.format("%016x.ro", instance.contentHash()));
+    }
+
+    /** Best solution stored for this instance, or null if there is none or if the file is not a valid solution of
+     * the instance. */
+    public synchronized ResourceOrder load(Instance instance) throws IOException {
+        Path file = file(instance);
+        if(!Files.exists(file)) {
+            return null;
+        }
+        try(DataInputStream in = new DataInputStream(new ByteArrayInputStream(Files.readAllBytes(file)))) {
+            if(in.readInt() != MAGIC || in.readInt() != instance.numJobs || in.readInt() != instance.numMachines) {
+                return null;
+            }
+            int makespan = in.readInt();
+            ResourceOrder order = new ResourceOrder(instance);
+            boolean[] placed = new boolean[instance.numJobs];
+            for(int m = 0 ; m < instance.numMachines ; m++) {
+                Arrays.fill(placed, false);
+                for(int i = 0 ; i < instance.numJobs ; i++) {
+                    int job = instance.numJobs > 256 ? in.readUnsignedShort() : in.readUnsignedByte();
+                    if(job >= instance.numJobs || placed[job]) {
+                        return null;
+                    }
+                    placed[job] = true;
+                    order.tasksByMachine[m][i] = new Task(job, instance.task_with_machine(job, m));
+                }
+                order.nextFreeSlot[m] = instance.numJobs;
+            }
+            Schedule schedule = order.toSchedule();
+            if(schedule == null || !schedule.isValid() || schedule.makespan() != makespan) {
+                return null;
+            }
+            return order;
+        } catch (IOException e) {
+            // truncated file
+            return null;
+        }
+    }
+
+    /** Stores the solution if it is better than the one stored for its instance. Returns true if it was stored. */
+    public synchronized boolean offer(Schedule schedule) throws IOException {
+        Instance instance = schedule.pb;
+        ResourceOrder order = new ResourceOrder(schedule);
+        // the makespan of the order itself, as the schedule may have idle times that the order does not keep
+        int makespan = order.toSchedule().makespan();
+        ResourceOrder stored = load(instance);
+        if(stored != null && stored.toSchedule().makespan() <= makespan) {
+            return false;
+        }
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try(DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(MAGIC);
+            out.writeInt(instance.numJobs);
+            out.writeInt(instance.numMachines);
+            out.writeInt(makespan);
+            for(int m = 0 ; m < instance.numMachines ; m++) {
+                for(int i = 0 ; i < instance.numJobs ; i++) {
+                    int job = order.tasksByMachine[m][i].job;
+                    if(instance.numJobs > 256) {
+                        out.writeShort(job);
+                    } else {
+                        out.writeByte(job);
+                    }
+                }
+            }
+        }
+        // write then rename, so that a crash or a concurrent batch never leaves a partial file
+        Path file = file(instance);
+        Path tmp = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+        Files.write(tmp, bytes.toByteArray());
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return true;
+    }
+}
@@ -4,4 +4,13 @@ public interface Solver {
 
     Result solve(Instance instance, long deadline);
 
+    /** Solves the instance until the deadline of the context, or earlier if the context is stopped.
+     * Solvers that do not override this method only stop at the deadline, and do not fill the statistics of the
+     * context. */
+    default Result solve(Instance instance, SolverContext context) {
+        Result result = solve(instance, context.deadline);
+        context.improved(result.schedule.makespan(), 0);
+        return new Result(result.instance, result.schedule, result.cause, context.stats);
+    }
+
 }
@@ -0,0 +1,126 @@
+package jobshop;
+
+/** Run-time context of a solver: its deadline, the seed of its random choices and a stop signal that can be raised
+ * from another thread.
+ *
+ * Solvers poll `shouldStop()` where they would compare the current time with the deadline (a volatile read and a
+ * clock read) and report the makespan of each new best solution with `improved(makespan, iteration)`. The context stops
+ * itself when a reported makespan reaches its target, e.g. the lower bound of the instance, and forwards the
+ * improvements of its best makespan to its listener, if any.
+ *
+ * A child context stops with its parent and forwards its improvements to it, so that several solvers can share a stop
+ * signal and the best makespan found so far without stopping their caller.
+ */
+public class SolverContext {
+
+    /** time (as given by System.currentTimeMillis()) at which the solver must return */
+    public final long deadline;
+
+    /** makespan at or below which there is nothing left to search, 0 if unknown */
+    public final int target;
+
+    /** seed of the random generators of the run, shared by a context and all its children */
+    public final long seed;
+
+    /** solution from which local search solvers start instead of building their own, null if none */
+    public final Schedule warmStart;
+
+    /** counters of the run, shared by a context and all its children */
+    public final SolverStats stats;
+
+    private final SolverContext parent;
+    private final IncumbentListener listener;
+    /** value of System.nanoTime() when the context was created */
+    private final long startNanos = System.nanoTime();
+    private volatile boolean stopped = false;
+    private volatile int best = Integer.MAX_VALUE;
+
+    public SolverContext(long deadline) {
+        this(deadline, 0);
+    }
+
+    public SolverContext(long deadline, int target) {
+        this(deadline, target, null);
+    }
+
+    public SolverContext(long deadline, int target, IncumbentListener listener) {
+        this(deadline, target, listener, 0);
+    }
+
+    public SolverContext(long deadline, int target, IncumbentListener listener, long seed) {
+        this(deadline, target, listener, seed, null);
+    }
+
+    public SolverContext(long deadline, int target, IncumbentListener listener, long seed, Schedule warmStart) {
+        this(null, deadline, target, listener, seed, warmStart);
+    }
+
+    private SolverContext(SolverContext parent, long deadline, int target, IncumbentListener listener, long seed,
+                          Schedule warmStart) {
+        this.parent = parent;
+        this.deadline = deadline;
+        this.target = target;
+        this.listener = listener;
+        this.seed = seed;
+        this.warmStart = warmStart;
+        this.stats = parent == null ? new SolverStats() : parent.stats;
+    }
+
+    /** A context that stops with this one, and also at the given deadline or once a makespan of at most `target` is
+     * reported. */
+    public SolverContext child(long deadline, int target) {
+        return new SolverContext(this, Math.min(deadline, this.deadline), Math.max(target, this.target), null, seed,
+                warmStart);
+    }
+
+    /** Seed of the `stream`-th random generator of the run, e.g. the one of a thread. The streams of two runs with
+     * different seeds differ, and with seed 0 the stream number is the seed itself. */
+    public long seed(int stream) {
+        return seed * 0x9E3779B97F4A7C15L + stream;
+    }
+
+    /** Asks the solvers using this context (and its children) to return as soon as possible. */
+    public void stop() {
+        stopped = true;
+    }
+
+    /** True if this context or one of its ancestors was stopped. */
+    public boolean isStopped() {
+        return stopped || parent != null && parent.isStopped();
+    }
+
+    /** True if the solver should return: the context was stopped or the deadline is passed. */
+    public boolean shouldStop() {
+        return isStopped() || System.currentTimeMillis() >= deadline;
+    }
+
+    /** Reports the makespan of a new best solution, found after the given number of iterations of the solver.
+     * Stops the context if it reaches the target. */
+    public void improved(int makespan, long iteration) {
+        if(makespan < best) {
+            synchronized(this) {
+                if(makespan < best) {
+                    best = makespan;
+                    long elapsed = System.nanoTime() - startNanos;
+                    if(parent == null) {
+                        stats.improved(elapsed);
+                    }
+                    if(listener != null) {
+                        listener.improved(elapsed, makespan, iteration);
+                    }
+                }
+            }
+        }
+        if(makespan <= target) {
+            stop();
+        }
+        if(parent != null) {
+            parent.improved(makespan, iteration);
+        }
+    }
+
+    /** Best makespan reported to this context or to one of its children, Integer.MAX_VALUE if none. */
+    public int bestMakespan() {
+        return best;
+    }
+}
@@ -0,0 +1,12 @@
+package jobshop;
+
+/** Source of solvers, found by SolverRegistry.load() with java.util.ServiceLoader.
+ *
+ * To make new solvers available to Main without modifying it, implement this interface and list the implementation in
+ * a `META-INF/services/jobshop.SolverProvider` file on the class path.
+ */
+public interface SolverProvider {
+
+    /** Registers the factories of the solvers of this provider. */
+    void register(SolverRegistry registry);
+}
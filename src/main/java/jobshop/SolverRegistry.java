@@ -0,0 +1,52 @@
+package jobshop;
+
+import java.util.ServiceLoader;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.IntFunction;
+
+/** Solvers available by name.
+ *
+ * The registry holds factories rather than solvers: create() builds a new solver for each run, which is only used by
+ * the thread of that run, so that any number of runs can execute concurrently whatever the solvers keep in their
+ * fields. A factory receives the number of cores available to its run. The registry itself can be used and modified
+ * from several threads.
+ */
+public class SolverRegistry {
+
+    private final ConcurrentMap<String, IntFunction<Solver>> factories = new ConcurrentHashMap<>();
+
+    /** A registry with the solvers of all the providers found on the class path. No solver is built. */
+    public static SolverRegistry load() {
+        SolverRegistry registry = new SolverRegistry();
+        for(SolverProvider provider : ServiceLoader.load(SolverProvider.class)) {
+            provider.register(registry);
+        }
+        return registry;
+    }
+
+    /** Adds a solver, replacing any solver with the same name. */
+    public void register(String name, IntFunction<Solver> factory) {
+        factories.put(name, factory);
+    }
+
+    public boolean contains(String name) {
+        return factories.containsKey(name);
+    }
+
+    /** A new solver of the given name, built for the given number of cores. */
+    public Solver create(String name, int cores) {
+        IntFunction<Solver> factory = factories.get(name);
+        if(factory == null) {
+            throw new IllegalArgumentException("Unknown solver " + name);
+        }
+        return factory.apply(cores);
+    }
+
+    /** Names of the registered solvers, in alphabetical order. */
+    public Set<String> names() {
+        return new TreeSet<>(factories.keySet());
+    }
+}
@@ -0,0 +1,224 @@
+package jobshop;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/** Resident solver: reads solve requests, runs them on a pool of workers and writes each result as soon as it is
+ * available, so that successive solves share a started JVM whose code is already compiled.
+ *
+ * Requests and responses are JSON objects, one per line. A request gives the solver, the timeout in seconds (1 by
+ * default), and either the path of an instance file or the text of the instance (with escaped newlines):
+ *
+ *   {"id":"a","solver":"taboo","timeout":2,"instance":"instances/ft10"}
+ *   {"id":"b","solver":"descent","text":"2 2\n0 3 1 2\n1 2 0 4"}
+ *
+ * The response repeats the id (as a string), and gives the runtime in milliseconds, the makespan, the exit cause, the counters of
+ * the run and the start times of the tasks of each job:
+ *
+ *   {"id":"a","solver":"taboo","runtime":2004,"makespan":1010,"cause":"Timeout","evaluations":36000,
+ *    "timeToBest":499,"starts":[[0,29,...],...]}
+ *
+ * Responses are written in the order in which the runs finish; a request that cannot be served gets a response with
+ * its id and an "error" field.
+ */
+public class SolverServer {
+
+    private static final Pattern FIELD = Pattern.compile("\"(\\w+)\"\\s*:\\s*(\"(?:[^\"\\\\]|\\\\.)*\"|[^,}\\s]+)");
+
+    private final SolverRegistry solvers;
+    private final ExecutorService workers;
+    /** cores given to each run */
+    private final int cores;
+
+    /** A server running at most `numWorkers` requests concurrently, the available cores being shared between them. */
+    public SolverServer(SolverRegistry solvers, int numWorkers) {
+        this.solvers = solvers;
+        this.workers = Executors.newFixedThreadPool(numWorkers);
+        this.cores = Math.max(1, Runtime.getRuntime().availableProcessors() / numWorkers);
+    }
+
+    /** Serves the requests read from `in` until its end, and returns once all their responses are written. */
+    public void serve(BufferedReader in, Writer out) throws IOException, InterruptedException {
+        List<Future<?>> pending = new ArrayList<>();
+        String line;
+        while((line = in.readLine()) != null) {
+            if(line.trim().isEmpty()) {
+                continue;
+            }
+            final String request = line;
+            pending.add(workers.submit(() -> respond(out, handle(request))));
+        }
+        for(Future<?> f : pending) {
+            try {
+                f.get();
+            } catch (ExecutionException e) {
+                // the connection was closed: nothing left to write to
+            }
+        }
+    }
+
+    /** Accepts connections on the loopback interface and serves each of them as serve() does, until the process is
+     * stopped. */
+    public void listen(int port) throws IOException {
+        try(ServerSocket server = new ServerSocket(port, 50, InetAddress.getLoopbackAddress())) {
+            System.err.println("Listening on " + server.getLocalSocketAddress());
+            while(true) {
+                Socket socket = server.accept();
+                Thread connection = new Thread(() -> {
+                    try(Socket s = socket;
+                        BufferedReader in = new BufferedReader(
+                                new InputStreamReader(s.getInputStream(), StandardCharsets.UTF_8));
+                        Writer out = new OutputStreamWriter(s.getOutputStream(), StandardCharsets.UTF_8)) {
+                        serve(in, out);
+                    } catch (IOException | InterruptedException e) {
+                        System.err.println("Connection closed: " + e);
+                    }
+                });
+                connection.setDaemon(true);
+                connection.start();
+            }
+        }
+    }
+
+    public void shutdown() {
+        workers.shutdownNow();
+    }
+
+    private static void respond(Writer out, String response) {
+        synchronized(out) {
+            try {
+                out.write(response);
+                out.write('\n');
+                out.flush();
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        }
+    }
+
+    /** Runs a request and returns its response. */
+    String handle(String request) {
+        Map<String, String> fields = parse(request);
+        String id = fields.get("id");
+        try {
+            if(fields.isEmpty()) {
+                return error(id, "malformed request");
+            }
+            String solverName = fields.get("solver");
+            if(solverName == null || !solvers.contains(solverName)) {
+                return error(id, "unknown solver " + solverName + ", available solvers: " + solvers.names());
+            }
+            Instance instance;
+            if(fields.containsKey("text")) {
+                instance = Instance.fromString(fields.get("text"));
+            } else if(fields.containsKey("instance")) {
+                instance = Instance.fromFile(Paths.get(fields.get("instance")));
+            } else {
+                return error(id, "missing instance or text");
+            }
+            long timeoutMs = fields.containsKey("timeout")
+                    ? (long) (Double.parseDouble(fields.get("timeout")) * 1000) : 1000;
+
+            Solver solver = solvers.create(solverName, cores);
+            long start = System.currentTimeMillis();
+            Result result = solver.solve(instance, new SolverContext(start + timeoutMs));
+            long runtime = System.currentTimeMillis() - start;
+            if(!result.schedule.isValid()) {
+                return error(id, "solver returned an invalid schedule");
+            }
+
+            StringBuilder starts = new StringBuilder("[");
+            for(int job = 0 ; job < instance.numJobs ; job++) {
+                starts.append(job == 0 ? "[" : ",[");
+                for(int task = 0 ; task < instance.numTasks ; task++) {
+                    starts.append(task == 0 ? "" : ",").append(result.schedule.startTime(job, task));
+                }
+                starts.append(']');
+            }
+            starts.append(']');
+            return String.format(Locale.ROOT,
+                    "{\"id\":%s,\"solver\":%s,\"runtime\":%d,\"makespan\":%d,\"cause\":\"%s\",\"evaluations\":%d," +
+                            "\"timeToBest\":%d,\"starts\":%s}",
+                    quote(id), quote(solverName), runtime, result.schedule.makespan(), result.cause,
+                    result.stats.evaluations(), result.stats.timeToBestNanos() / 1000000, starts);
+        } catch (IOException | RuntimeException e) {
+            return error(id, e.toString());
+        }
+    }
+
+    private static String error(String id, String message) {
+        return "{\"id\":" + quote(id) + ",\"error\":" + quote(message) + "}";
+    }
+
+    /** Fields of a flat JSON object, with string values unescaped. Empty if the line is not an object. */
+    static Map<String, String> parse(String line) {
+        Map<String, String> fields = new HashMap<>();
+        line = line.trim();
+        if(!line.startsWith("{") || !line.endsWith("}")) {
+            return fields;
+        }
+        Matcher m = FIELD.matcher(line);
+        while(m.find()) {
+            String value = m.group(2);
+            fields.put(m.group(1), value.startsWith("\"") ? unescape(value.substring(1, value.length() - 1)) : value);
+        }
+        return fields;
+    }
+
+    private static String unescape(String s) {
+        StringBuilder sb = new StringBuilder();
+        for(int i = 0 ; i < s.length() ; i++) {
+            char c = s.charAt(i);
+            if(c == '\\' && i + 1 < s.length()) {
+                char next = s.charAt(++i);
+                switch(next) {
+                    case 'n': sb.append('\n'); break;
+                    case 'r': sb.append('\r'); break;
+                    case 't': sb.append('\t'); break;
+                    default: sb.append(next);
+                }
+            } else {
+                sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+
+    /** JSON string of the value, null if it is null. */
+    private static String quote(String s) {
+        if(s == null) {
+            return "null";
+        }
+        StringBuilder sb = new StringBuilder("\"");
+        for(char c : s.toCharArray()) {
+            switch(c) {
+                case '"': sb.append("\\\""); break;
+                case '\\': sb.append("\\\\"); break;
+                case '\n': sb.append("\\n"); break;
+                case '\r': sb.append("\\r"); break;
+                case '\t': sb.append("\\t"); break;
+                default: sb.append(c);
+            }
+        }
+        return sb.append('"').toString();
+    }
+}
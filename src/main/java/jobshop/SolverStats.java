@@ -0,0 +1,109 @@
+package jobshop;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/** Counters describing the work done by a solver during one run.
+ *
+ * Solvers count in local variables and add their totals (at the end of the run or periodically), so that the
+ * counters can be shared by several threads without slowing down the search. Improvements and the time to the best
+ * solution are recorded by the SolverContext to which the improvements are reported.
+ *
+ * - evaluations: makespans computed, exactly or with a constant time estimate
+ * - neighbors generated: candidate moves or neighbor solutions considered
+ * - iterations: iterations of the main loop of the solver (moves, generations, nodes...)
+ * - accepted: generated neighbors that the solver moved to, for solvers that may reject them (annealing)
+ * - improvements: new best solutions
+ * - restarts: restarts from another solution (best solution, immigrant, elite...)
+ */
+public class SolverStats {
+
+    private final AtomicLong evaluations = new AtomicLong();
+    private final AtomicLong neighborsGenerated = new AtomicLong();
+    private final AtomicLong iterations = new AtomicLong();
+    private final AtomicLong improvements = new AtomicLong();
+    private final AtomicLong restarts = new AtomicLong();
+    private final AtomicLong accepted = new AtomicLong();
+    private volatile long timeToBestNanos = 0;
+
+    public void addEvaluations(long count) {
+        evaluations.addAndGet(count);
+    }
+
+    public void addNeighborsGenerated(long count) {
+        neighborsGenerated.addAndGet(count);
+    }
+
+    public void addIterations(long count) {
+        iterations.addAndGet(count);
+    }
+
+    public void addRestarts(long count) {
+        restarts.addAndGet(count);
+    }
+
+    public void addAccepted(long count) {
+        accepted.addAndGet(count);
+    }
+
+    /** Records a new best solution found after the given time since the start of the run. */
+    void improved(long elapsedNanos) {
+        improvements.incrementAndGet();
+        timeToBestNanos = elapsedNanos;
+    }
+
+    public long evaluations() {
+        return evaluations.get();
+    }
+
+    public long neighborsGenerated() {
+        return neighborsGenerated.get();
+    }
+
+    public long iterations() {
+        return iterations.get();
+    }
+
+    public long improvements() {
+        return improvements.get();
+    }
+
+    public long restarts() {
+        return restarts.get();
+    }
+
+    public long accepted() {
+        return accepted.get();
+    }
+
+    /** Time between the start of the run and the last improvement of the best solution. */
+    public long timeToBestNanos() {
+        return timeToBestNanos;
+    }
+
+    /** Evaluations per second over a run of the given duration. */
+    public double evaluationsPerSecond(long runtimeMs) {
+        return runtimeMs == 0 ? 0 : evaluations() * 1000.0 / runtimeMs;
+    }
+
+    /** Neighbors generated (moves considered) per second over a run of the given duration. */
+    public double neighborsPerSecond(long runtimeMs) {
+        return runtimeMs == 0 ? 0 : neighborsGenerated() * 1000.0 / runtimeMs;
+    }
+
+    /** Iterations (generations for the genetic solver) per second over a run of the given duration. */
+    public double iterationsPerSecond(long runtimeMs) {
+        return runtimeMs == 0 ? 0 : iterations() * 1000.0 / runtimeMs;
+    }
+
+    /** Proportion of the generated neighbors that were accepted, 0 for solvers that do not count them. */
+    public double acceptanceRate() {
+        return neighborsGenerated() == 0 ? 0 : (double) accepted() / neighborsGenerated();
+    }
+
+    @Override
+    public String toString() {
+        return "evaluations=" + evaluations() + " neighbors=" + neighborsGenerated() + " iterations=" + iterations()
+                + " improvements=" + improvements() + " restarts=" + restarts() + " accepted=" + accepted()
+                + " timeToBest=" + timeToBestNanos / 1000000 + "ms";
+    }
+}
@@ -0,0 +1,133 @@
+package jobshop.encodings;
+
+import jobshop.Instance;
+
+import java.util.Arrays;
+
+/** Computes the makespans of many job numbers sequences at once (see JobNumbers.makespan()).
+ *
+ * The sequences of a batch are evaluated in lockstep: position i of all the sequences is processed before position
+ * i+1. The sequences and the state of the evaluation are stored as structures of arrays, the value of lane b (the b-th
+ * sequence of the batch) being at index `x * batchSize + b` for position, job or machine x. The innermost loop thus runs
+ * over consecutive lanes, with no virtual call, and on tables flattened by operation (job * numTasks + task).
+ *
+ * An evaluator owns its buffers: it is meant to be used by a single thread. Nothing is allocated after construction.
+ */
+public class BatchEvaluator {
+
+    public final Instance instance;
+    /** number of sequences evaluated in lockstep */
+    public final int batchSize;
+    /** number of tasks in a sequence */
+    private final int n;
+
+    /** for each operation: first index of its job and of its machine in the state arrays, and its duration */
+    private final int[] jobRow;
+    private final int[] machineRow;
+    private final int[] durationOf;
+
+    /** the sequences of the batch: operation at position i of lane b in sequences[i * batchSize + b] */
+    private final int[] sequences;
+    /** next operation of each job when reading the sequences, end of the last task of each job and of each machine
+     * for each lane */
+    private final int[] nextOp;
+    private final int[] jobFree;
+    private final int[] machineFree;
+
+    public BatchEvaluator(Instance instance, int batchSize) {
+        this.instance = instance;
+        this.batchSize = batchSize;
+        this.n = instance.numJobs * instance.numTasks;
+        jobRow = new int[n];
+        machineRow = new int[n];
+        durationOf = new int[n];
+        for(int j = 0 ; j < instance.numJobs ; j++) {
+            for(int t = 0 ; t < instance.numTasks ; t++) {
+                jobRow[j * instance.numTasks + t] = j * batchSize;
+                machineRow[j * instance.numTasks + t] = instance.machine(j, t) * batchSize;
+                durationOf[j * instance.numTasks + t] = instance.duration(j, t);
+            }
+        }
+        sequences = new int[n * batchSize];
+        nextOp = new int[instance.numJobs * batchSize];
+        jobFree = new int[instance.numJobs * batchSize];
+        machineFree = new int[instance.numMachines * batchSize];
+    }
+
+    /** Computes the makespans of individuals `first` to `first + count - 1` of a population stored one sequence after
+     * the other (individual i in `population[i * n .. (i+1) * n - 1]`), and stores the makespan of individual i in
+     * `makespans[i]`. */
+    public void evaluate(int[] population, int first, int count, int[] makespans) {
+        final int[] sequences = this.sequences;
+        final int[] nextOp = this.nextOp;
+        final int stride = batchSize;
+        for(int from = first ; from < first + count ; from += stride) {
+            int lanes = Math.min(stride, first + count - from);
+            // transpose the individuals into the lanes of the batch, replacing each job by its operation
+            for(int b = 0 ; b < lanes ; b++) {
+                int offset = (from + b) * n;
+                for(int j = 0 ; j < instance.numJobs ; j++) {
+                    nextOp[j] = j * instance.numTasks;
+                }
+                for(int i = 0 ; i < n ; i++) {
+                    sequences[i * stride + b] = nextOp[population[offset + i]]++;
+                }
+            }
+            evaluateLanes(lanes, makespans, from);
+        }
+    }
+
+    /** Computes the makespans of a batch already laid out as a structure of arrays: the job at position i of lane b in
+     * `batch[i * batchSize + b]`. The makespan of lane b is stored in `makespans[b]`. */
+    public void evaluateBatch(int[] batch, int[] makespans) {
+        final int[] sequences = this.sequences;
+        final int[] nextOp = this.nextOp;
+        final int stride = batchSize;
+        for(int j = 0 ; j < instance.numJobs ; j++) {
+            Arrays.fill(nextOp, j * stride, (j + 1) * stride, j * instance.numTasks);
+        }
+        // replace each job by its operation, all lanes in lockstep
+        for(int row = 0 ; row < n * stride ; row += stride) {
+            for(int b = 0 ; b < stride ; b++) {
+                sequences[row + b] = nextOp[batch[row + b] * stride + b]++;
+            }
+        }
+        evaluateLanes(stride, makespans, 0);
+    }
+
+    /** Evaluates the first `lanes` lanes of the batch, storing the makespan of lane b in `makespans[offset + b]`. */
+    private void evaluateLanes(int lanes, int[] makespans, int offset) {
+        // local copies, so that the JIT keeps them in registers and hoists the range checks of the lane loops
+        final int[] sequences = this.sequences;
+        final int[] jobFree = this.jobFree;
+        final int[] machineFree = this.machineFree;
+        final int[] jobRow = this.jobRow;
+        final int[] machineRow = this.machineRow;
+        final int[] durationOf = this.durationOf;
+        final int stride = batchSize;
+
+        Arrays.fill(jobFree, 0);
+        Arrays.fill(machineFree, 0);
+
+        for(int row = 0 ; row < n * stride ; row += stride) {
+            for(int b = 0 ; b < lanes ; b++) {
+                int op = sequences[row + b];
+                int job = jobRow[op] + b;
+                int machine = machineRow[op] + b;
+                int end = Math.max(jobFree[job], machineFree[machine]) + durationOf[op];
+                jobFree[job] = end;
+                machineFree[machine] = end;
+            }
+        }
+
+        // the makespan is the end of the last task of the latest job
+        for(int b = 0 ; b < lanes ; b++) {
+            makespans[offset + b] = 0;
+        }
+        for(int row = 0 ; row < instance.numJobs * stride ; row += stride) {
+            for(int b = 0 ; b < lanes ; b++) {
+                makespans[offset + b] = Math.max(makespans[offset + b], jobFree[row + b]);
+            }
+        }
+    }
+}
@@ -0,0 +1,362 @@
+package jobshop.encodings;
+
+import jobshop.Instance;
+import jobshop.Schedule;
+
+import java.util.Arrays;
+
+/** Disjunctive graph of a resource order, stored in flat int arrays.
+ *
+ * Operations are identified by `job * numTasks + task`. For every operation the graph maintains its head
+ * (earliest start time) and its tail (length of the longest path from its end to the end of the schedule),
+ * which gives the makespan, the critical path and an O(1) estimate of the makespan after swapping two
+ * adjacent critical operations, all without building a Schedule.
+ *
+ * Machines can also be left unsequenced, in which case they do not contribute any arc to the graph and heads and
+ * tails only account for the job precedences and the sequenced machines.
+ *
+ * Nothing is allocated after construction, so a single graph can be reused for millions of moves.
+ */
+public class DisjunctiveGraph {
+
+    public final Instance instance;
+
+    final int numJobs;
+    final int numTasks;
+
+    /** duration of each operation */
+    final int[] duration;
+    /** machine of each operation */
+    final int[] machineOf;
+
+    /** for each machine m, sequence[m] contains the operations executed on m, in processing order */
+    public final int[][] sequence;
+    /** index of each operation in the sequence of its machine */
+    final int[] position;
+    /** true for the machines whose sequence is part of the graph */
+    final boolean[] sequenced;
+
+    /** earliest start time of each operation */
+    public final int[] head;
+    /** longest path from the end of each operation to the end of the schedule */
+    public final int[] tail;
+
+    /** operations in topological order, filled by evaluate() */
+    final int[] topologicalOrder;
+    /** scratch array for the topological sort */
+    final int[] inDegree;
+
+    private int makespan;
+
+    /** operations of the critical path, from the first to the last one */
+    final int[] criticalPath;
+    int criticalPathLength;
+
+    /** Critical blocks: maximal sequences of at least two operations of the critical path on the same machine.
+     * Block b is made of positions blockFirst[b] to blockLast[b] (inclusive) on machine blockMachine[b]. */
+    public int numBlocks;
+    public final int[] blockMachine;
+    public final int[] blockFirst;
+    public final int[] blockLast;
+
+    public DisjunctiveGraph(Instance instance) {
+        this.instance = instance;
+        this.numJobs = instance.numJobs;
+        this.numTasks = instance.numTasks;
+        int numOps = numJobs * numTasks;
+
+        duration = new int[numOps];
+        machineOf = new int[numOps];
+        for(int j = 0 ; j < numJobs ; j++) {
+            for(int t = 0 ; t < numTasks ; t++) {
+                duration[j * numTasks + t] = instance.duration(j, t);
+                machineOf[j * numTasks + t] = instance.machine(j, t);
+            }
+        }
+        sequence = new int[instance.numMachines][numJobs];
+        position = new int[numOps];
+        sequenced = new boolean[instance.numMachines];
+        Arrays.fill(sequenced, true);
+        head = new int[numOps];
+        tail = new int[numOps];
+        topologicalOrder = new int[numOps];
+        inDegree = new int[numOps];
+        criticalPath = new int[numOps];
+        blockMachine = new int[numOps];
+        blockFirst = new int[numOps];
+        blockLast = new int[numOps];
+    }
+
+    /** Creates a graph with the same orientation as the given (fully scheduled) resource order and evaluates it. */
+    public DisjunctiveGraph(ResourceOrder order) {
+        this(order.instance);
+        load(order);
+        evaluate();
+    }
+
+    public int operation(int job, int task) {
+        return job * numTasks + task;
+    }
+
+    public int jobOf(int op) {
+        return op / numTasks;
+    }
+
+    public int taskOf(int op) {
+        return op % numTasks;
+    }
+
+    public int duration(int op) {
+        return duration[op];
+    }
+
+    public int machineOf(int op) {
+        return machineOf[op];
+    }
+
+    /** Replaces the orientation of this graph by the one of the given resource order. evaluate() must be
+     * called before heads, tails or makespan are used. */
+    public void load(ResourceOrder order) {
+        for(int m = 0 ; m < sequence.length ; m++) {
+            for(int i = 0 ; i < numJobs ; i++) {
+                Task t = order.tasksByMachine[m][i];
+                int op = operation(t.job, t.task);
+                sequence[m][i] = op;
+                position[op] = i;
+            }
+            sequenced[m] = true;
+        }
+    }
+
+    /** Sets the processing order of the operations of a machine, and adds it to the graph if it was unsequenced.
+     * evaluate() must be called before heads, tails or makespan are used again. */
+    public void setSequence(int machine, int[] ops) {
+        for(int i = 0 ; i < numJobs ; i++) {
+            sequence[machine][i] = ops[i];
+            position[ops[i]] = i;
+        }
+        sequenced[machine] = true;
+    }
+
+    /** Removes the sequence of the machine from the graph: its operations are no longer constrained by each other.
+     * evaluate() must be called before heads, tails or makespan are used again. */
+    public void unsequence(int machine) {
+        sequenced[machine] = false;
+    }
+
+    public boolean isSequenced(int machine) {
+        return sequenced[machine];
+    }
+
+    /** Replaces the orientation of this graph by the one of another graph of the same instance.
+     * Heads, tails and critical blocks are copied as well. */
+    public void copyFrom(DisjunctiveGraph other) {
+        for(int m = 0 ; m < sequence.length ; m++) {
+            System.arraycopy(other.sequence[m], 0, sequence[m], 0, numJobs);
+        }
+        System.arraycopy(other.position, 0, position, 0, position.length);
+        System.arraycopy(other.sequenced, 0, sequenced, 0, sequenced.length);
+        System.arraycopy(other.head, 0, head, 0, head.length);
+        System.arraycopy(other.tail, 0, tail, 0, tail.length);
+        System.arraycopy(other.topologicalOrder, 0, topologicalOrder, 0, topologicalOrder.length);
+        System.arraycopy(other.criticalPath, 0, criticalPath, 0, other.criticalPathLength);
+        criticalPathLength = other.criticalPathLength;
+        numBlocks = other.numBlocks;
+        System.arraycopy(other.blockMachine, 0, blockMachine, 0, numBlocks);
+        System.arraycopy(other.blockFirst, 0, blockFirst, 0, numBlocks);
+        System.arraycopy(other.blockLast, 0, blockLast, 0, numBlocks);
+        makespan = other.makespan;
+    }
+
+    /** Predecessor of the operation on its machine, or -1 if it is the first one or the machine is unsequenced. */
+    int machinePredecessor(int op) {
+        int machine = machineOf[op];
+        int pos = position[op];
+        return pos == 0 || !sequenced[machine] ? -1 : sequence[machine][pos - 1];
+    }
+
+    /** Successor of the operation on its machine, or -1 if it is the last one or the machine is unsequenced. */
+    int machineSuccessor(int op) {
+        int machine = machineOf[op];
+        int pos = position[op];
+        return pos == numJobs - 1 || !sequenced[machine] ? -1 : sequence[machine][pos + 1];
+    }
+
+    /** Predecessor of the operation on its job, or -1 if it is the first one. */
+    int jobPredecessor(int op) {
+        return op % numTasks == 0 ? -1 : op - 1;
+    }
+
+    /** Successor of the operation on its job, or -1 if it is the last one. */
+    int jobSuccessor(int op) {
+        return op % numTasks == numTasks - 1 ? -1 : op + 1;
+    }
+
+    /** End time of the operation, 0 for the dummy operation -1 */
+    private int end(int op) {
+        return op < 0 ? 0 : head[op] + duration[op];
+    }
+
+    /** Length of the longest path starting with the operation, 0 for the dummy operation -1 */
+    private int start(int op) {
+        return op < 0 ? 0 : tail[op] + duration[op];
+    }
+
+    /** Computes heads, tails, makespan and critical blocks.
+     * Returns false if the orientation contains a cycle, in which case heads and tails are meaningless. */
+    public boolean evaluate() {
+        int numOps = head.length;
+        for(int op = 0 ; op < numOps ; op++) {
+            inDegree[op] = (op % numTasks == 0 ? 0 : 1) + (machinePredecessor(op) < 0 ? 0 : 1);
+        }
+        // Kahn's algorithm, using topologicalOrder as the queue
+        int queueEnd = 0;
+        for(int j = 0 ; j < numJobs ; j++) {
+            int op = j * numTasks;
+            if(inDegree[op] == 0)
+                topologicalOrder[queueEnd++] = op;
+        }
+        for(int i = 0 ; i < queueEnd ; i++) {
+            int op = topologicalOrder[i];
+            head[op] = Math.max(end(jobPredecessor(op)), end(machinePredecessor(op)));
+
+            int js = jobSuccessor(op);
+            if(js >= 0 && --inDegree[js] == 0)
+                topologicalOrder[queueEnd++] = js;
+            int ms = machineSuccessor(op);
+            if(ms >= 0 && --inDegree[ms] == 0)
+                topologicalOrder[queueEnd++] = ms;
+        }
+        if(queueEnd < numOps)
+            return false;
+
+        makespan = 0;
+        for(int i = numOps - 1 ; i >= 0 ; i--) {
+            int op = topologicalOrder[i];
+            tail[op] = Math.max(start(jobSuccessor(op)), start(machineSuccessor(op)));
+            makespan = Math.max(makespan, head[op] + duration[op] + tail[op]);
+        }
+        computeCriticalBlocks();
+        return true;
+    }
+
+    public int makespan() {
+        return makespan;
+    }
+
+    /** Identifies a critical path, walking backward from an operation that ends at the makespan, and splits
+     * it into blocks. */
+    private void computeCriticalBlocks() {
+        int cur = -1;
+        for(int j = 0 ; j < numJobs && cur < 0 ; j++) {
+            int last = j * numTasks + numTasks - 1;
+            if(end(last) == makespan)
+                cur = last;
+        }
+        int len = 0;
+        while(cur >= 0) {
+            criticalPath[len++] = cur;
+            int jp = jobPredecessor(cur);
+            int mp = machinePredecessor(cur);
+            if(jp >= 0 && end(jp) == head[cur])
+                cur = jp;
+            else if(mp >= 0 && end(mp) == head[cur])
+                cur = mp;
+            else
+                cur = -1;
+        }
+        // put the path back in chronological order
+        for(int i = 0 ; i < len / 2 ; i++) {
+            int tmp = criticalPath[i];
+            criticalPath[i] = criticalPath[len - 1 - i];
+            criticalPath[len - 1 - i] = tmp;
+        }
+        criticalPathLength = len;
+
+        numBlocks = 0;
+        int first = 0;
+        for(int i = 1 ; i <= len ; i++) {
+            if(i == len || machineOf[criticalPath[i]] != machineOf[criticalPath[first]]) {
+                if(i - first > 1) {
+                    blockMachine[numBlocks] = machineOf[criticalPath[first]];
+                    blockFirst[numBlocks] = position[criticalPath[first]];
+                    blockLast[numBlocks] = position[criticalPath[i - 1]];
+                    numBlocks++;
+                }
+                first = i;
+            }
+        }
+    }
+
+    /** Estimates the makespan obtained by swapping the operations at positions `pos` and `pos+1` on the machine,
+     * in constant time.
+     *
+     * The value is the length of the longest path going through one of the two swapped operations (Nowicki and
+     * Smutnicki). It is exact whenever the new critical path goes through one of them, and never larger than the
+     * actual makespan. The two operations must be adjacent on a critical path, which guarantees that the swap
+     * does not create a cycle. */
+    public int swapEstimate(int machine, int pos) {
+        int u = sequence[machine][pos];
+        int v = sequence[machine][pos + 1];
+        int before = pos == 0 ? -1 : sequence[machine][pos - 1];
+        int after = pos + 2 == numJobs ? -1 : sequence[machine][pos + 2];
+
+        int headV = Math.max(end(jobPredecessor(v)), end(before));
+        int headU = Math.max(end(jobPredecessor(u)), headV + duration[v]);
+        int tailU = Math.max(start(jobSuccessor(u)), start(after));
+        int tailV = Math.max(start(jobSuccessor(v)), tailU + duration[u]);
+
+        return Math.max(headV + duration[v] + tailV, headU + duration[u] + tailU);
+    }
+
+    /** True if moving the operation at position `from` on the machine to position `to` (shifting the operations in
+     * between) cannot create a cycle, checked in constant time with the heads and tails of the current orientation.
+     *
+     * Moving u after v creates a cycle only if there is a path from the job successor of u to v, and moving v before
+     * u only if there is a path from u to the job predecessor of v. With positive durations, neither path exists when
+     * the tail of v is at least the one of the job successor of u, or the end of u at least the one of the job
+     * predecessor of v (Balas and Vazacopoulos). The test is conservative: a move it rejects may still be feasible. */
+    public boolean canMove(int machine, int from, int to) {
+        if(from < to) {
+            int u = sequence[machine][from];
+            int v = sequence[machine][to];
+            int js = jobSuccessor(u);
+            return js < 0 || start(v) >= start(js);
+        } else {
+            int u = sequence[machine][to];
+            int v = sequence[machine][from];
+            int jp = jobPredecessor(v);
+            return jp < 0 || end(u) >= end(jp);
+        }
+    }
+
+    /** Swaps the operations at positions `pos` and `pos+1` on the machine. evaluate() must be called before
+     * heads, tails or makespan are used again. */
+    public void swap(int machine, int pos) {
+        int u = sequence[machine][pos];
+        int v = sequence[machine][pos + 1];
+        sequence[machine][pos] = v;
+        sequence[machine][pos + 1] = u;
+        position[v] = pos;
+        position[u] = pos + 1;
+    }
+
+    /** Creates a new resource order with the same orientation as this graph, whose machines must all be sequenced. */
+    public ResourceOrder toResourceOrder() {
+        ResourceOrder order = new ResourceOrder(instance);
+        for(int m = 0 ; m < sequence.length ; m++) {
+            for(int i = 0 ; i < numJobs ; i++) {
+                int op = sequence[m][i];
+                order.tasksByMachine[m][i] = new Task(jobOf(op), taskOf(op));
+            }
+            order.nextFreeSlot[m] = numJobs;
+        }
+        return order;
+    }
+
+    /** Builds the schedule in which every operation starts at its head. Only valid after a successful evaluate(). */
+    public Schedule toSchedule() {
+        // operations and the start times of a schedule have the same numbering
+        return Schedule.wrap(instance, Arrays.copyOf(head, numJobs * numTasks));
+    }
+}
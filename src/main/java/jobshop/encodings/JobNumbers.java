@@ -5,8 +5,6 @@ import jobshop.Instance;
 import jobshop.Schedule;
 
 import java.util.Arrays;
-import java.util.Comparator;
-import java.util.stream.IntStream;
 
 /** Représentation par numéro de job. */
 public class JobNumbers extends Encoding {
@@ -28,25 +26,52 @@ public class JobNumbers extends Encoding {
     public JobNumbers(Schedule schedule) {
         super(schedule.pb);
 
+        // the job of every task, by increasing start time
+        this.jobs = schedule.tasksByStartTime();
+        for(int i = 0 ; i < jobs.length ; i++) {
+            jobs[i] /= instance.numTasks;
+        }
+        nextToSet = jobs.length;
+    }
+
+    /** Creates a job numbers sequence with the same schedule as the resource order, without building the schedule.
+     *
+     * @throws IllegalArgumentException if the order has a cycle, i.e. has no schedule
+     */
+    public JobNumbers(ResourceOrder order) {
+        super(order.instance);
+
         this.jobs = new int[instance.numJobs * instance.numTasks];
 
-        // for each job indicates which is the next task to be scheduled
+        // for each job, the next task to add ; for each machine, the position of its next task to add
         int[] nextOnJob = new int[instance.numJobs];
+        int[] nextOnMachine = new int[instance.numMachines];
 
-        while(Arrays.stream(nextOnJob).anyMatch(t -> t < instance.numTasks)) {
-            Task next = IntStream
-                    // for all jobs numbers
-                    .range(0, instance.numJobs)
-                    // build the next task for this job
-                    .mapToObj(j -> new Task(j, nextOnJob[j]))
-                    // only keep valid tasks (some jobs have no task left to be executed)
-                    .filter(t -> t.task < instance.numTasks)
-                    // select the task with the earliest execution time
-                    .min(Comparator.comparing(t -> schedule.startTime(t.job, t.task)))
-                    .get();
-
-            this.jobs[nextToSet++] = next.job;
-            nextOnJob[next.job] += 1;
+        // machines whose next task may be the next of its job: each added task pushes at most two machines
+        int[] stack = new int[instance.numMachines + 2 * jobs.length];
+        int size = 0;
+        for(int m = 0 ; m < instance.numMachines ; m++) {
+            stack[size++] = m;
+        }
+        while(size > 0) {
+            int machine = stack[--size];
+            if(nextOnMachine[machine] == instance.numJobs) {
+                continue;
+            }
+            Task t = order.tasksByMachine[machine][nextOnMachine[machine]];
+            if(t.task != nextOnJob[t.job]) {
+                continue;
+            }
+            jobs[nextToSet++] = t.job;
+            nextOnMachine[machine]++;
+            nextOnJob[t.job]++;
+            stack[size++] = machine;
+            if(nextOnJob[t.job] < instance.numTasks) {
+                stack[size++] = instance.machine(t.job, nextOnJob[t.job]);
+            }
+        }
+        if(nextToSet < jobs.length) {
+            throw new IllegalArgumentException("The resource order has a cycle");
         }
     }
 
@@ -58,23 +83,49 @@ public class JobNumbers extends Encoding {
         // for each job, the first task that has not yet been scheduled
         int[] nextTask = new int[instance.numJobs];
 
-        // for each task, its start time
-        int[][] startTimes = new int[instance.numJobs][instance.numTasks];
+        // for each task (j,t), its start time in startTimes[j * numTasks + t]
+        int[] startTimes = new int[instance.numJobs * instance.numTasks];
 
         // compute the earliest start time for every task of every job
         for(int job : jobs) {
             int task = nextTask[job];
             int machine = instance.machine(job, task);
+            int op = job * instance.numTasks + task;
             // earliest start time for this task
-            int est = task == 0 ? 0 : startTimes[job][task-1] + instance.duration(job, task-1);
+            int est = task == 0 ? 0 : startTimes[op-1] + instance.duration(job, task-1);
             est = Math.max(est, nextFreeTimeResource[machine]);
 
-            startTimes[job][task] = est;
+            startTimes[op] = est;
             nextFreeTimeResource[machine] = est + instance.duration(job, task);
             nextTask[job] = task + 1;
         }
 
-        return new Schedule(instance, startTimes);
+        return Schedule.wrap(instance, startTimes);
+    }
+
+    /** Computes the makespan of the job numbers sequence stored in `jobs[from .. from + numJobs * numTasks - 1]`
+     * without building a schedule.
+     *
+     * `machineFree`, `jobFree` and `nextTask` are scratch arrays of sizes numMachines, numJobs and numJobs, so that
+     * repeated evaluations do not allocate. */
+    public static int makespan(Instance instance, int[] jobs, int from,
+                               int[] machineFree, int[] jobFree, int[] nextTask) {
+        Arrays.fill(machineFree, 0);
+        Arrays.fill(jobFree, 0);
+        Arrays.fill(nextTask, 0);
+
+        int makespan = 0;
+        int to = from + instance.numJobs * instance.numTasks;
+        for(int i = from ; i < to ; i++) {
+            int job = jobs[i];
+            int task = nextTask[job]++;
+            int machine = instance.machine(job, task);
+            int end = Math.max(jobFree[job], machineFree[machine]) + instance.duration(job, task);
+            jobFree[job] = end;
+            machineFree[machine] = end;
+            makespan = Math.max(makespan, end);
+        }
+        return makespan;
     }
 
     @Override
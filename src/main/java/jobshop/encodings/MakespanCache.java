@@ -0,0 +1,73 @@
+package jobshop.encodings;
+
+import java.util.Arrays;
+
+/** Bounded cache of the makespans of resource orders, keyed by their Zobrist hash (see ResourceOrder.hash()).
+ *
+ * Keys and makespans are stored in two flat arrays, organized in buckets of `WAYS` consecutive entries: a hash can
+ * only be stored in the bucket given by its lowest bits, and when the bucket is full its least recently used entry is
+ * evicted. Nothing is allocated after construction.
+ *
+ * A cache is meant to be used by a single thread, for the orders of a single instance.
+ */
+public class MakespanCache {
+
+    /** number of entries per bucket */
+    static final int WAYS = 4;
+
+    /** hash of each entry, most recently used first in each bucket */
+    private final long[] keys;
+    /** makespan of each entry, -1 for the empty ones */
+    private final int[] makespans;
+    private final int bucketMask;
+
+    private long hits = 0;
+    private long misses = 0;
+
+    /** A cache of at least `capacity` entries (rounded up to a power of two). */
+    public MakespanCache(int capacity) {
+        int numBuckets = Integer.highestOneBit(Math.max(1, (capacity + WAYS - 1) / WAYS - 1)) << 1;
+        keys = new long[numBuckets * WAYS];
+        makespans = new int[numBuckets * WAYS];
+        Arrays.fill(makespans, -1);
+        bucketMask = numBuckets - 1;
+    }
+
+    /** Makespan of the order, computed with toSchedule() if it is not in the cache. The order must be valid. */
+    public int makespan(ResourceOrder order) {
+        long hash = order.hash();
+        int first = (int) (hash ^ (hash >>> 32)) & bucketMask;
+        first *= WAYS;
+        for(int i = first ; i < first + WAYS && makespans[i] >= 0 ; i++) {
+            if(keys[i] == hash) {
+                int makespan = makespans[i];
+                moveToFront(first, i, hash, makespan);
+                hits++;
+                return makespan;
+            }
+        }
+        misses++;
+        int makespan = order.toSchedule().makespan();
+        // the last entry of the bucket is the least recently used one
+        moveToFront(first, first + WAYS - 1, hash, makespan);
+        return makespan;
+    }
+
+    /** Shifts the entries of the bucket before `i` by one position, and stores the given entry first. */
+    private void moveToFront(int first, int i, long hash, int makespan) {
+        System.arraycopy(keys, first, keys, first + 1, i - first);
+        System.arraycopy(makespans, first, makespans, first + 1, i - first);
+        keys[first] = hash;
+        makespans[first] = makespan;
+    }
+
+    /** Number of makespans found in the cache. */
+    public long hits() {
+        return hits;
+    }
+
+    /** Number of makespans that had to be computed. */
+    public long misses() {
+        return misses;
+    }
+}
@@ -5,7 +5,6 @@ import jobshop.Instance;
 import jobshop.Schedule;
 
 import java.util.ArrayList;
-import java.util.Comparator;
 import java.util.List;
 import java.util.Optional;
 import java.util.stream.IntStream;
@@ -14,6 +13,7 @@ public class ResourceOrder extends Encoding {
 
     // for each machine m, taskByMachine[m] is an array of tasks to be
     // executed on this machine in the same order
+    // (call invalidateHash() after modifying it directly, or use swap() that maintains the hash)
     public final Task[][] tasksByMachine;
 
     // for each machine, indicate on many tasks have been initialized
@@ -25,6 +25,10 @@ public class ResourceOrder extends Encoding {
 
     public int[] dateEndLastTask;
 
+    /** Zobrist hash of tasksByMachine, valid if `hashed` is true */
+    private long hash;
+    private boolean hashed = false;
+
     /** Creates a new empty resource order. */
     public ResourceOrder(Instance instance)
     {
@@ -55,21 +59,33 @@ public class ResourceOrder extends Encoding {
         super(schedule.pb);
         Instance pb = schedule.pb;
 
-        this.tasksByMachine = new Task[pb.numMachines][];
+        this.tasksByMachine = new Task[pb.numMachines][pb.numJobs];
         this.nextFreeSlot = new int[instance.numMachines];
 
-        for(int m = 0 ; m<schedule.pb.numMachines ; m++) {
-            final int machine = m;
+        // append the tasks to their machine by increasing start time: a single sort for all machines
+        for(int op : schedule.tasksByStartTime())
+        {
+            Task t = new Task(op / pb.numTasks, op % pb.numTasks);
+            int machine = pb.machine(t);
+            tasksByMachine[machine][nextFreeSlot[machine]++] = t;
+        }
+    }
+
+    /** Creates the resource order in which the tasks of each machine are in their order in the job numbers sequence,
+     * which has the same schedule, without building the schedule. The sequence must be complete. */
+    public ResourceOrder(JobNumbers jobNumbers)
+    {
+        super(jobNumbers.instance);
 
-            // for thi machine, find all tasks that are executed on it and sort them by their start time
-            tasksByMachine[m] =
-                    IntStream.range(0, pb.numJobs) // all job numbers
-                            .mapToObj(j -> new Task(j, pb.task_with_machine(j, machine))) // all tasks on this machine (one per job)
-                            .sorted(Comparator.comparing(t -> schedule.startTime(t.job, t.task))) // sorted by start time
-                            .toArray(Task[]::new); // as new array and store in tasksByMachine
+        this.tasksByMachine = new Task[instance.numMachines][instance.numJobs];
+        this.nextFreeSlot = new int[instance.numMachines];
 
-            // indicate that all tasks have been initialized for machine m
-            nextFreeSlot[m] = instance.numJobs;
+        int[] nextTask = new int[instance.numJobs];
+        for(int job : jobNumbers.jobs)
+        {
+            Task t = new Task(job, nextTask[job]++);
+            int machine = instance.machine(t);
+            tasksByMachine[machine][nextFreeSlot[machine]++] = t;
         }
     }
 
@@ -142,7 +158,8 @@ public class ResourceOrder extends Encoding {
     @Override
     public Schedule toSchedule() {
         // indicate for each task that have been scheduled, its start time
-        int [][] startTimes = new int [instance.numJobs][instance.numTasks];
+        // start time of task (j,t) in startTimes[j * numTasks + t]
+        int[] startTimes = new int[instance.numJobs * instance.numTasks];
 
         // for each job, how many tasks have been scheduled (0 initially)
         int[] nextToScheduleByJob = new int[instance.numJobs];
@@ -174,9 +191,10 @@ public class ResourceOrder extends Encoding {
                 int machine = instance.machine(t.job, t.task);
 
                 // compute the earliest start time (est) of the task
-                int est = t.task == 0 ? 0 : startTimes[t.job][t.task-1] + instance.duration(t.job, t.task-1);
+                int op = t.job * instance.numTasks + t.task;
+                int est = t.task == 0 ? 0 : startTimes[op-1] + instance.duration(t.job, t.task-1);
                 est = Math.max(est, releaseTimeOfMachine[instance.machine(t)]);
-                startTimes[t.job][t.task] = est;
+                startTimes[op] = est;
 
                 // mark the task as scheduled
                 nextToScheduleByJob[t.job]++;
@@ -189,12 +207,97 @@ public class ResourceOrder extends Encoding {
             }
         }
         // we exited the loop : all tasks have been scheduled successfully
-        return new Schedule(instance, startTimes);
+        return Schedule.wrap(instance, startTimes);
     }
 
     /** Creates an exact copy of this resource order. */
     public ResourceOrder copy() {
-        return new ResourceOrder(this.toSchedule());
+        return new ResourceOrder(this);
+    }
+
+    private ResourceOrder(ResourceOrder other)
+    {
+        super(other.instance);
+        tasksByMachine = new Task[other.tasksByMachine.length][];
+        for(int m = 0 ; m < tasksByMachine.length ; m++)
+        {
+            // tasks are immutable and can be shared
+            tasksByMachine[m] = other.tasksByMachine[m].clone();
+        }
+        nextFreeSlot = other.nextFreeSlot.clone();
+        nextFreeSlotByJobs = other.nextFreeSlotByJobs == null ? null : other.nextFreeSlotByJobs.clone();
+        dateMachineFree = other.dateMachineFree == null ? null : other.dateMachineFree.clone();
+        dateEndLastTask = other.dateEndLastTask == null ? null : other.dateEndLastTask.clone();
+        hash = other.hash;
+        hashed = other.hashed;
+    }
+
+    /** Swaps the tasks at positions i and j on the given machine, updating the hash in constant time. */
+    public void swap(int machine, int i, int j)
+    {
+        Task a = tasksByMachine[machine][i];
+        Task b = tasksByMachine[machine][j];
+        if(hashed)
+        {
+            hash ^= zobristKey(machine, i, a.job) ^ zobristKey(machine, j, b.job)
+                    ^ zobristKey(machine, i, b.job) ^ zobristKey(machine, j, a.job);
+        }
+        tasksByMachine[machine][i] = b;
+        tasksByMachine[machine][j] = a;
+    }
+
+    /** Moves the task at position `from` on the given machine to position `to`, shifting the tasks in between by one
+     * position. The hash is updated in time proportional to the distance of the move. */
+    public void move(int machine, int from, int to)
+    {
+        for(int i = from ; i < to ; i++)
+        {
+            swap(machine, i, i + 1);
+        }
+        for(int i = from ; i > to ; i--)
+        {
+            swap(machine, i, i - 1);
+        }
+    }
+
+    /** Zobrist hash of the order: the xor of the keys of all its (machine, position, job) triples. Two equal orders
+     * of the same instance have the same hash; two different ones have the same hash with probability 2^-64.
+     * Computed once in O(machines x jobs), then maintained by swap() in O(1). */
+    public long hash()
+    {
+        if(!hashed)
+        {
+            long h = 0;
+            for(int m = 0 ; m < tasksByMachine.length ; m++)
+            {
+                for(int i = 0 ; i < tasksByMachine[m].length ; i++)
+                {
+                    if(tasksByMachine[m][i] != null)
+                    {
+                        h ^= zobristKey(m, i, tasksByMachine[m][i].job);
+                    }
+                }
+            }
+            hash = h;
+            hashed = true;
+        }
+        return hash;
+    }
+
+    /** To be called after a direct modification of tasksByMachine, so that hash() recomputes the hash. */
+    public void invalidateHash()
+    {
+        hashed = false;
+    }
+
+    /** Pseudo-random key of the job at the given position on the given machine. Rather than being drawn and stored
+     * in a table, keys are obtained by mixing the index of the triple with the finalizer of SplitMix64. */
+    private long zobristKey(int machine, int position, int job)
+    {
+        long z = ((long) (machine * instance.numJobs + position) * instance.numJobs + job + 1) * 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
     }
 
     @Override
@@ -0,0 +1,500 @@
+package jobshop.solvers;
+
+import jobshop.Instance;
+import jobshop.Result;
+import jobshop.Schedule;
+import jobshop.Solver;
+import jobshop.SolverContext;
+import jobshop.encodings.ResourceOrder;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/** Exact branch and bound on the orientation of the disjunctive arcs.
+ *
+ * A node fixes the relative order of some pairs of tasks executed on the same machine. Heads and tails are computed
+ * from the job precedences and the fixed pairs, and propagated with immediate selections: if putting b before a
+ * would lead to a makespan of at least the best known one, a is fixed before b. A node is pruned by the longest path
+ * through any task and by the preemptive one machine bound (Jackson) of every machine. Otherwise, it branches on a
+ * pair of the machine with the largest one machine bound, exploring first the order with the smallest bound.
+ *
+ * The initial upper bound is given by the shifting bottleneck procedure followed by a short tabu search. Subtrees are
+ * explored by the workers of a work-stealing ForkJoinPool that share the upper bound in an atomic integer. When the
+ * tree is exhausted, the best solution is proved optimal.
+ */
+public class BranchAndBoundSolver implements Solver {
+
+    /** Nodes at a depth smaller than this are forked and can be stolen by idle workers. */
+    static final int SPLIT_DEPTH = 16;
+
+    /** Fraction of the time budget given to the tabu search that computes the initial upper bound. */
+    static final double TABU_FRACTION = 0.1;
+
+    private final int parallelism;
+
+    /** One worker per available core. */
+    public BranchAndBoundSolver()
+    {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    public BranchAndBoundSolver(int parallelism)
+    {
+        this.parallelism = Math.max(1, parallelism);
+    }
+
+    /** State shared by all nodes of a search. */
+    static class Search {
+        final Instance instance;
+        final SolverContext context;
+        /** nodes at a depth smaller than this are forked */
+        final int splitDepth;
+        /** number of nodes after which the search is interrupted */
+        final long maxNodes;
+        final AtomicLong nodes = new AtomicLong(0);
+        final int numJobs;
+        final int numMachines;
+        final int numOps;
+        /** opsOnMachine[m][j]: task of job j on machine m */
+        final int[][] opsOnMachine;
+        final int[] duration;
+        final int[] machineOf;
+        /** tasks whose longest path is minimized, or null for all tasks (the makespan) */
+        final boolean[] counted;
+
+        final AtomicInteger upperBound;
+        /** true if the context was stopped or the node limit reached before the tree was exhausted */
+        final AtomicBoolean interrupted = new AtomicBoolean(false);
+        private Schedule incumbent;
+        private int incumbentValue;
+
+        Search(Instance instance, Schedule start, SolverContext context, int splitDepth, long maxNodes)
+        {
+            this(instance, start, start.makespan(), context, splitDepth, maxNodes, null);
+        }
+
+        /** Search for a solution in which the longest path through the counted tasks is smaller than `startValue`,
+         * its value in the start solution. */
+        Search(Instance instance, Schedule start, int startValue, SolverContext context, int splitDepth,
+               long maxNodes, boolean[] counted)
+        {
+            this.instance = instance;
+            this.context = context;
+            this.splitDepth = splitDepth;
+            this.maxNodes = maxNodes;
+            this.numJobs = instance.numJobs;
+            this.numMachines = instance.numMachines;
+            this.numOps = numJobs * instance.numTasks;
+            this.opsOnMachine = new int[numMachines][numJobs];
+            this.duration = new int[numOps];
+            this.machineOf = new int[numOps];
+            for(int j = 0 ; j < numJobs ; j++)
+            {
+                for(int t = 0 ; t < instance.numTasks ; t++)
+                {
+                    int op = j * instance.numTasks + t;
+                    duration[op] = instance.duration(j, t);
+                    machineOf[op] = instance.machine(j, t);
+                    opsOnMachine[machineOf[op]][j] = op;
+                }
+            }
+            this.counted = counted;
+            this.incumbent = start;
+            this.incumbentValue = startValue;
+            this.upperBound = new AtomicInteger(startValue);
+        }
+
+        synchronized void improve(Schedule schedule, int value)
+        {
+            if(value < incumbentValue)
+            {
+                incumbent = schedule;
+                incumbentValue = value;
+            }
+            int ub = upperBound.get();
+            while(value < ub && !upperBound.compareAndSet(ub, value))
+            {
+                ub = upperBound.get();
+            }
+            if(counted == null)
+            {
+                context.improved(value, nodes.get());
+            }
+        }
+
+        synchronized Schedule incumbent()
+        {
+            return incumbent;
+        }
+
+        int jobOf(int op)
+        {
+            return op / instance.numTasks;
+        }
+
+        boolean counts(int op)
+        {
+            return counted == null || counted[op];
+        }
+    }
+
+    /** A node of the search tree.
+     * order[(m * numJobs + a) * numJobs + b] is 1 if job a is fixed before job b on machine m, -1 if it is fixed after
+     * and 0 if the pair is free. */
+    static class Node extends RecursiveAction {
+        // tasks of the fork/join pool are never serialized
+        private static final long serialVersionUID = 1L;
+
+        final Search search;
+        final byte[] order;
+        final int depth;
+
+        // heads and tails of the node, computed by propagate()
+        private int[] head;
+        private int[] tail;
+
+        Node(Search search, byte[] order, int depth)
+        {
+            this.search = search;
+            this.order = order;
+            this.depth = depth;
+        }
+
+        @Override
+        protected void compute()
+        {
+            if(search.interrupted.get())
+            {
+                return;
+            }
+            if(search.context.shouldStop() || search.nodes.incrementAndGet() > search.maxNodes)
+            {
+                search.interrupted.set(true);
+                return;
+            }
+            head = new int[search.numOps];
+            tail = new int[search.numOps];
+            if(!propagate())
+            {
+                return;
+            }
+
+            // one machine bounds, and choice of the machine to branch on
+            int numJobs = search.numJobs;
+            int ub = search.upperBound.get();
+            int[] r = new int[numJobs];
+            int[] p = new int[numJobs];
+            int[] q = new int[numJobs];
+            int[] scratch = new int[numJobs];
+            int branchMachine = -1;
+            int branchBound = -1;
+            for(int m = 0 ; m < search.numMachines ; m++)
+            {
+                int n = 0;
+                for(int j = 0 ; j < numJobs ; j++)
+                {
+                    int op = search.opsOnMachine[m][j];
+                    if(search.counts(op))
+                    {
+                        r[n] = head[op];
+                        p[n] = search.duration[op];
+                        q[n] = tail[op];
+                        n++;
+                    }
+                }
+                int bound = Carlier.preemptiveBound(n, r, p, q, scratch);
+                if(bound >= ub)
+                {
+                    return;
+                }
+                if(bound > branchBound && hasFreePair(m))
+                {
+                    branchMachine = m;
+                    branchBound = bound;
+                }
+            }
+
+            if(branchMachine < 0)
+            {
+                // every pair is fixed: the heads form a schedule whose value is below the upper bound
+                int value = 0;
+                for(int op = 0 ; op < search.numOps ; op++)
+                {
+                    if(search.counts(op))
+                    {
+                        value = Math.max(value, head[op] + search.duration[op] + tail[op]);
+                    }
+                }
+                // operations and the start times of a schedule have the same numbering
+                search.improve(Schedule.wrap(search.instance, head.clone()), value);
+                return;
+            }
+
+            // branch on the free pair of the machine whose two orders have the largest smallest bound
+            int bestA = -1;
+            int bestB = -1;
+            int bestValue = -1;
+            for(int a = 0 ; a < numJobs ; a++)
+            {
+                for(int b = a + 1 ; b < numJobs ; b++)
+                {
+                    if(order[index(branchMachine, a, b)] != 0)
+                    {
+                        continue;
+                    }
+                    int value = Math.min(pairBound(branchMachine, a, b), pairBound(branchMachine, b, a));
+                    if(value > bestValue)
+                    {
+                        bestA = a;
+                        bestB = b;
+                        bestValue = value;
+                    }
+                }
+            }
+            if(pairBound(branchMachine, bestB, bestA) < pairBound(branchMachine, bestA, bestB))
+            {
+                int aux = bestA;
+                bestA = bestB;
+                bestB = aux;
+            }
+            Node first = child(branchMachine, bestA, bestB);
+            Node second = child(branchMachine, bestB, bestA);
+            head = null;
+            tail = null;
+            if(depth < search.splitDepth)
+            {
+                second.fork();
+                first.compute();
+                second.join();
+            }
+            else
+            {
+                first.compute();
+                second.compute();
+            }
+        }
+
+        private Node child(int machine, int before, int after)
+        {
+            byte[] childOrder = order.clone();
+            fix(childOrder, machine, before, after);
+            return new Node(search, childOrder, depth + 1);
+        }
+
+        private int index(int machine, int a, int b)
+        {
+            return (machine * search.numJobs + a) * search.numJobs + b;
+        }
+
+        private void fix(byte[] order, int machine, int before, int after)
+        {
+            order[index(machine, before, after)] = 1;
+            order[index(machine, after, before)] = -1;
+        }
+
+        private boolean hasFreePair(int machine)
+        {
+            for(int a = 0 ; a < search.numJobs ; a++)
+            {
+                for(int b = a + 1 ; b < search.numJobs ; b++)
+                {
+                    if(order[index(machine, a, b)] == 0)
+                    {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
+
+        /** Length of the longest path through the tasks of jobs a and b on the machine if a is executed before b. */
+        private int pairBound(int machine, int a, int b)
+        {
+            int opA = search.opsOnMachine[machine][a];
+            int opB = search.opsOnMachine[machine][b];
+            return head[opA] + search.duration[opA] + search.duration[opB] + tail[opB];
+        }
+
+        /** Computes heads and tails and applies immediate selections until a fixpoint is reached.
+         * Returns false if the node cannot lead to a solution better than the upper bound. */
+        private boolean propagate()
+        {
+            boolean changed = true;
+            while(changed)
+            {
+                if(!computeHeadsAndTails())
+                {
+                    return false;
+                }
+                int ub = search.upperBound.get();
+                for(int op = 0 ; op < search.numOps ; op++)
+                {
+                    if(search.counts(op) && head[op] + search.duration[op] + tail[op] >= ub)
+                    {
+                        return false;
+                    }
+                }
+                changed = false;
+                for(int m = 0 ; m < search.numMachines ; m++)
+                {
+                    for(int a = 0 ; a < search.numJobs ; a++)
+                    {
+                        for(int b = a + 1 ; b < search.numJobs ; b++)
+                        {
+                            if(order[index(m, a, b)] != 0
+                                    || !search.counts(search.opsOnMachine[m][a])
+                                    && !search.counts(search.opsOnMachine[m][b]))
+                            {
+                                continue;
+                            }
+                            boolean aFirst = pairBound(m, a, b) < ub;
+                            boolean bFirst = pairBound(m, b, a) < ub;
+                            if(!aFirst && !bFirst)
+                            {
+                                return false;
+                            }
+                            if(!bFirst)
+                            {
+                                fix(order, m, a, b);
+                                changed = true;
+                            }
+                            else if(!aFirst)
+                            {
+                                fix(order, m, b, a);
+                                changed = true;
+                            }
+                        }
+                    }
+                }
+            }
+            return true;
+        }
+
+        /** Longest paths in the graph of the job precedences and fixed pairs. Returns false if it contains a cycle. */
+        private boolean computeHeadsAndTails()
+        {
+            int numOps = search.numOps;
+            int numTasks = search.instance.numTasks;
+            int numJobs = search.numJobs;
+            int[] inDegree = new int[numOps];
+            int[] topologicalOrder = new int[numOps];
+            for(int op = 0 ; op < numOps ; op++)
+            {
+                int machine = search.machineOf[op];
+                int job = search.jobOf(op);
+                inDegree[op] = op % numTasks == 0 ? 0 : 1;
+                for(int other = 0 ; other < numJobs ; other++)
+                {
+                    if(order[index(machine, other, job)] == 1)
+                    {
+                        inDegree[op]++;
+                    }
+                }
+            }
+            int queueEnd = 0;
+            for(int op = 0 ; op < numOps ; op++)
+            {
+                head[op] = 0;
+                if(inDegree[op] == 0)
+                {
+                    topologicalOrder[queueEnd++] = op;
+                }
+            }
+            for(int i = 0 ; i < queueEnd ; i++)
+            {
+                int op = topologicalOrder[i];
+                int end = head[op] + search.duration[op];
+                int machine = search.machineOf[op];
+                int job = search.jobOf(op);
+                if(op % numTasks != numTasks - 1)
+                {
+                    head[op + 1] = Math.max(head[op + 1], end);
+                    if(--inDegree[op + 1] == 0)
+                    {
+                        topologicalOrder[queueEnd++] = op + 1;
+                    }
+                }
+                for(int other = 0 ; other < numJobs ; other++)
+                {
+                    if(order[index(machine, job, other)] == 1)
+                    {
+                        int next = search.opsOnMachine[machine][other];
+                        head[next] = Math.max(head[next], end);
+                        if(--inDegree[next] == 0)
+                        {
+                            topologicalOrder[queueEnd++] = next;
+                        }
+                    }
+                }
+            }
+            if(queueEnd < numOps)
+            {
+                return false;
+            }
+            for(int i = numOps - 1 ; i >= 0 ; i--)
+            {
+                int op = topologicalOrder[i];
+                int machine = search.machineOf[op];
+                int job = search.jobOf(op);
+                int t = op % numTasks == numTasks - 1 ? 0 : tail[op + 1] + search.duration[op + 1];
+                for(int other = 0 ; other < numJobs ; other++)
+                {
+                    if(order[index(machine, job, other)] == 1)
+                    {
+                        int next = search.opsOnMachine[machine][other];
+                        t = Math.max(t, tail[next] + search.duration[next]);
+                    }
+                }
+                tail[op] = t;
+            }
+            return true;
+        }
+    }
+
+    @Override
+    public Result solve(Instance instance, long deadline)
+    {
+        return solve(instance, new SolverContext(deadline));
+    }
+
+    @Override
+    public Result solve(Instance instance, SolverContext context)
+    {
+        long start = System.currentTimeMillis();
+        Schedule bottleneck = new ShiftingBottleneckSolver().solve(instance, context).schedule;
+        TabuSearch tabu = new TabuSearch(instance, context.seed);
+        tabu.reset(new ResourceOrder(bottleneck));
+        context.improved(tabu.best.makespan(), 0);
+        // the tabu search stops early if it reaches the lower bound
+        int lowerBound = instance.lowerBound();
+        long tabuDeadline = start + (long) ((context.deadline - start) * TABU_FRACTION);
+        SolverContext tabuContext = context.child(tabuDeadline, lowerBound);
+        while(tabu.best.makespan() > lowerBound && !tabu.optimal && !tabuContext.shouldStop())
+        {
+            tabu.run(100, tabuContext);
+        }
+
+        Search search = new Search(instance, tabu.best.toSchedule(), context, SPLIT_DEPTH, Long.MAX_VALUE);
+        boolean proved = tabu.optimal || search.upperBound.get() <= lowerBound;
+        if(!proved && !context.isStopped())
+        {
+            byte[] order = new byte[instance.numMachines * instance.numJobs * instance.numJobs];
+            ForkJoinPool pool = new ForkJoinPool(parallelism);
+            try
+            {
+                pool.invoke(new Node(search, order, 0));
+            }
+            finally
+            {
+                pool.shutdownNow();
+            }
+            proved = !search.interrupted.get();
+            context.stats.addIterations(search.nodes.get());
+        }
+        Result.ExitCause cause = proved ? Result.ExitCause.ProvedOptimal : Result.ExitCause.Timeout;
+        return new Result(instance, search.incumbent(), cause, context.stats);
+    }
+}
@@ -0,0 +1,33 @@
+package jobshop.solvers;
+
+import jobshop.SolverProvider;
+import jobshop.SolverRegistry;
+
+/** The solvers of this package, under the names used on the command line. */
+public class BuiltinSolvers implements SolverProvider {
+
+    @Override
+    public void register(SolverRegistry registry)
+    {
+        registry.register("basic", cores -> new BasicSolver());
+        registry.register("random", cores -> new RandomSolver());
+        registry.register("spt", cores -> new GreedySPT());
+        registry.register("lrpt", cores -> new GreedyLRPT());
+        registry.register("sptest", cores -> new GreedySPTEST());
+        registry.register("lrptest", cores -> new GreedyLRPTEST());
+        registry.register("descent", cores -> new DescentSolver());
+        registry.register("descent-n7", cores -> new DescentSolver(Neighborhood.N7));
+        registry.register("descent-first", cores -> new DescentSolver(Neighborhood.N5, DescentSolver.Mode.FIRST_IMPROVEMENT));
+        registry.register("descent-random", cores -> new DescentSolver(Neighborhood.N5, DescentSolver.Mode.RANDOM_FIRST));
+        registry.register("taboo", cores -> new TabouSolver());
+        registry.register("taboo-n7", cores -> new TabouSolver(Neighborhood.N7));
+        registry.register("annealing", cores -> new SimulatedAnnealingSolver());
+        registry.register("ils", cores -> new IteratedLocalSearchSolver());
+        registry.register("genetic", GeneticSolver::new);
+        registry.register("taboo-islands", IslandTabouSolver::new);
+        registry.register("taboo-relinking", PathRelinkingSolver::new);
+        registry.register("bottleneck", cores -> new ShiftingBottleneckSolver());
+        registry.register("bnb", BranchAndBoundSolver::new);
+        registry.register("lns", LargeNeighborhoodSolver::new);
+    }
+}
@@ -0,0 +1,239 @@
+package jobshop.solvers;
+
+import java.util.Arrays;
+
+/** Carlier's branch and bound for the one machine problem with heads and tails (1|r,q|Cmax): n tasks with a release
+ * date r, a duration p and a tail q have to be sequenced on a single machine so as to minimize max(start + p + q).
+ *
+ * Each node is evaluated with Schrage's heuristic (schedule the available task with the largest tail). When the
+ * resulting schedule is not optimal, its critical path contains an interference task c and a set K of tasks that
+ * should all be executed before or all after c. The two branches forbid c to be before K (by increasing its release
+ * date) or after K (by increasing its tail), and are pruned with the preemptive Jackson bound.
+ *
+ * The search is limited to `maxNodes` nodes, after which the best sequence found so far is kept.
+ */
+class Carlier {
+
+    final int n;
+    final int[] r;
+    final int[] p;
+    final int[] q;
+
+    /** best sequence found so far and its value */
+    final int[] sequence;
+    int upperBound = Integer.MAX_VALUE;
+
+    private final long maxNodes;
+    private long nodes = 0;
+
+    // scratch buffers of Schrage's heuristic
+    private final int[] order;
+    private final int[] start;
+    private final boolean[] done;
+    private final int[] remaining;
+
+    /** Copies the given heads, durations and tails of n tasks. */
+    Carlier(int n, int[] r, int[] p, int[] q, long maxNodes)
+    {
+        this.n = n;
+        this.r = Arrays.copyOf(r, n);
+        this.p = Arrays.copyOf(p, n);
+        this.q = Arrays.copyOf(q, n);
+        this.maxNodes = maxNodes;
+        sequence = new int[n];
+        order = new int[n];
+        start = new int[n];
+        done = new boolean[n];
+        remaining = new int[n];
+    }
+
+    /** Runs the branch and bound and returns the makespan of the best sequence, stored in `sequence`. */
+    int solve()
+    {
+        branch();
+        return upperBound;
+    }
+
+    /** True if the search was not interrupted, in which case `sequence` is optimal. */
+    boolean isOptimal()
+    {
+        return nodes <= maxNodes;
+    }
+
+    private void branch()
+    {
+        if(++nodes > maxNodes)
+        {
+            return;
+        }
+        int makespan = schrage();
+        if(makespan < upperBound)
+        {
+            upperBound = makespan;
+            System.arraycopy(order, 0, sequence, 0, n);
+        }
+
+        // last task of the critical path: its completion plus its tail is the makespan
+        int last = n - 1;
+        while(start[order[last]] + p[order[last]] + q[order[last]] != makespan)
+        {
+            last--;
+        }
+        // first task of the critical path: the machine is never idle between it and the last one
+        int first = last;
+        while(first > 0 && start[order[first - 1]] + p[order[first - 1]] == start[order[first]])
+        {
+            first--;
+        }
+        // interference task: the last one of the path whose tail is smaller than the one of the last task
+        int c = last - 1;
+        while(c >= first && q[order[c]] >= q[order[last]])
+        {
+            c--;
+        }
+        if(c < first)
+        {
+            // Schrage's sequence is optimal for this node
+            return;
+        }
+
+        int rK = Integer.MAX_VALUE;
+        int qK = Integer.MAX_VALUE;
+        int pK = 0;
+        for(int i = c + 1 ; i <= last ; i++)
+        {
+            rK = Math.min(rK, r[order[i]]);
+            qK = Math.min(qK, q[order[i]]);
+            pK += p[order[i]];
+        }
+        int task = order[c];
+        int hK = rK + pK + qK;
+        int hKc = Math.min(rK, r[task]) + pK + p[task] + Math.min(qK, q[task]);
+
+        // branch 1: task c is executed after all tasks of K
+        int oldR = r[task];
+        r[task] = Math.max(oldR, rK + pK);
+        if(Math.max(Math.max(hK, hKc), preemptiveBound()) < upperBound)
+        {
+            branch();
+        }
+        r[task] = oldR;
+
+        // branch 2: task c is executed before all tasks of K
+        int oldQ = q[task];
+        q[task] = Math.max(oldQ, qK + pK);
+        if(Math.max(Math.max(hK, hKc), preemptiveBound()) < upperBound)
+        {
+            branch();
+        }
+        q[task] = oldQ;
+    }
+
+    /** Schrage's heuristic: whenever the machine is free, starts the released task with the largest tail.
+     * Fills `order` and `start` and returns the makespan. */
+    private int schrage()
+    {
+        Arrays.fill(done, false);
+        int t = 0;
+        int makespan = 0;
+        for(int k = 0 ; k < n ; k++)
+        {
+            int chosen = -1;
+            int nextRelease = Integer.MAX_VALUE;
+            for(int j = 0 ; j < n ; j++)
+            {
+                if(done[j])
+                {
+                    continue;
+                }
+                if(r[j] <= t)
+                {
+                    if(chosen < 0 || q[j] > q[chosen])
+                    {
+                        chosen = j;
+                    }
+                }
+                else
+                {
+                    nextRelease = Math.min(nextRelease, r[j]);
+                }
+            }
+            if(chosen < 0)
+            {
+                // machine idle until the next release
+                t = nextRelease;
+                k--;
+                continue;
+            }
+            done[chosen] = true;
+            order[k] = chosen;
+            start[chosen] = t;
+            t += p[chosen];
+            makespan = Math.max(makespan, t + q[chosen]);
+        }
+        return makespan;
+    }
+
+    /** Makespan of the optimal preemptive schedule (Jackson's rule), a lower bound of the problem. */
+    int preemptiveBound()
+    {
+        return preemptiveBound(n, r, p, q, remaining);
+    }
+
+    /** Makespan of the optimal preemptive schedule of n tasks, computed with Jackson's rule: at any time, execute
+     * the released task with the largest tail. `remaining` is a scratch array of size at least n. */
+    static int preemptiveBound(int n, int[] r, int[] p, int[] q, int[] remaining)
+    {
+        System.arraycopy(p, 0, remaining, 0, n);
+        int left = n;
+        int t = Integer.MAX_VALUE;
+        int bound = 0;
+        for(int j = 0 ; j < n ; j++)
+        {
+            t = Math.min(t, r[j]);
+            if(p[j] == 0)
+            {
+                left--;
+                bound = Math.max(bound, r[j] + q[j]);
+            }
+        }
+        while(left > 0)
+        {
+            int chosen = -1;
+            int nextRelease = Integer.MAX_VALUE;
+            for(int j = 0 ; j < n ; j++)
+            {
+                if(remaining[j] == 0)
+                {
+                    continue;
+                }
+                if(r[j] <= t)
+                {
+                    if(chosen < 0 || q[j] > q[chosen])
+                    {
+                        chosen = j;
+                    }
+                }
+                else
+                {
+                    nextRelease = Math.min(nextRelease, r[j]);
+                }
+            }
+            if(chosen < 0)
+            {
+                t = nextRelease;
+                continue;
+            }
+            // run the chosen task until it completes or a new task is released
+            int run = Math.min(remaining[chosen], nextRelease == Integer.MAX_VALUE ? remaining[chosen] : nextRelease - t);
+            remaining[chosen] -= run;
+            t += run;
+            if(remaining[chosen] == 0)
+            {
+                left--;
+                bound = Math.max(bound, t + q[chosen]);
+            }
+        }
+        return bound;
+    }
+}
@@ -3,112 +3,134 @@ package jobshop.solvers;
 import jobshop.Instance;
 import jobshop.Result;
 import jobshop.Solver;
+import jobshop.SolverContext;
+import jobshop.encodings.DisjunctiveGraph;
+import jobshop.encodings.MakespanCache;
 import jobshop.encodings.ResourceOrder;
-import jobshop.encodings.Task;
 import jobshop.Schedule;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Random;
 
 public class DescentSolver implements Solver {
 
-    /** A block represents a subsequence of the critical path such that all tasks in it execute on the same machine.
-     * This class identifies a block in a ResourceOrder representation.
-     *
-     * Consider the solution in ResourceOrder representation
-     * machine 0 : (0,1) (1,2) (2,2)
-     * machine 1 : (0,2) (2,1) (1,1)
-     * machine 2 : ...
-     *
-     * The block with : machine = 1, firstTask= 0 and lastTask = 1
-     * Represent the task sequence : [(0,2) (2,1)]
-     *
-     * */
-    static class Block {
-        /** machine on which the block is identified */
-        final int machine;
-        /** index of the first task of the block */
-        final int firstTask;
-        /** index of the last task of the block */
-        final int lastTask;
-
-        Block(int machine, int firstTask, int lastTask) {
-            this.machine = machine;
-            this.firstTask = firstTask;
-            this.lastTask = lastTask;
-        }
+    /** Number of makespans kept in the cache of a run. */
+    static final int CACHE_SIZE = 1 << 16;
+
+    /** How the next solution is chosen among the neighbors of the current one. */
+    public enum Mode
+    {
+        /** evaluate all the neighbors and move to the best one */
+        STEEPEST,
+        /** evaluate the neighbors in the order of the critical path, and move to the first one that improves */
+        FIRST_IMPROVEMENT,
+        /** evaluate the neighbors in a random order, and move to the first one that improves */
+        RANDOM_FIRST
     }
 
-    /**
-     * Represents a swap of two tasks on the same machine in a ResourceOrder encoding.
-     *
-     * Consider the solution in ResourceOrder representation
-     * machine 0 : (0,1) (1,2) (2,2)
-     * machine 1 : (0,2) (2,1) (1,1)
-     * machine 2 : ...
-     *
-     * The swam with : machine = 1, t1= 0 and t2 = 1
-     * Represent inversion of the two tasks : (0,2) and (2,1)
-     * Applying this swap on the above resource order should result in the following one :
-     * machine 0 : (0,1) (1,2) (2,2)
-     * machine 1 : (2,1) (0,2) (1,1)
-     * machine 2 : ...
-     */
-    static class Swap {
-        // machine on which to perform the swap
-        final int machine;
-        // index of one task to be swapped
-        final int t1;
-        // index of the other task to be swapped
-        final int t2;
-
-        Swap(int machine, int t1, int t2) {
-            this.machine = machine;
-            this.t1 = t1;
-            this.t2 = t2;
-        }
+    private final Neighborhood neighborhood;
+    private final Mode mode;
 
-        /** Apply this swap on the given resource order, transforming it into a new solution. */
-        public void applyOn(ResourceOrder order)
-        {
-            Task aux = order.tasksByMachine[machine][t1];
-            order.tasksByMachine[machine][t1] = order.tasksByMachine[machine][t2];
-            order.tasksByMachine[machine][t2] = aux;
-        }
+    /** A steepest descent in the N5 neighborhood. */
+    public DescentSolver()
+    {
+        this(Neighborhood.N5);
+    }
+
+    public DescentSolver(Neighborhood neighborhood)
+    {
+        this(neighborhood, Mode.STEEPEST);
+    }
+
+    public DescentSolver(Neighborhood neighborhood, Mode mode)
+    {
+        this.neighborhood = neighborhood;
+        this.mode = mode;
     }
 
     @Override
     public Result solve(Instance instance, long deadline)
     {
+        return solve(instance, new SolverContext(deadline));
+    }
 
-        Schedule startSolution = new GreedyLRPTEST().solve(instance, deadline).schedule;
+    @Override
+    public Result solve(Instance instance, SolverContext context)
+    {
+
+        Schedule startSolution = context.warmStart != null ? context.warmStart
+                : new GreedyLRPTEST().solve(instance, context.deadline).schedule;
 
         ResourceOrder currentSolution = new ResourceOrder(startSolution);
-        List<Block> blocksOfCriticalPath;
         List<ResourceOrder> neighborhood;
         ResourceOrder bestNeighbor = currentSolution;
+        MakespanCache cache = new MakespanCache(CACHE_SIZE);
+        // critical blocks of the current solution, and its heads and tails for the feasibility of insertions
+        DisjunctiveGraph graph = new DisjunctiveGraph(instance);
+        Random generator = new Random(context.seed);
+        int iteration = 0;
+        long neighbors = 0;
         do
         {
             currentSolution = bestNeighbor;
-            blocksOfCriticalPath = blocksOfCriticalPath(currentSolution);
+            int makespan = cache.makespan(currentSolution);
+            context.improved(makespan, iteration++);
 
-            neighborhood = generateNeighborhood(currentSolution, blocksOfCriticalPath);
+            if(mode == Mode.STEEPEST)
+            {
+                neighborhood = generateNeighborhood(currentSolution, graph);
+                neighbors += neighborhood.size();
 
-            bestNeighbor = getMinMakeSpan(neighborhood);
+                // no neighbor: the critical path has no block, and the solution is optimal
+                bestNeighbor = neighborhood.isEmpty() ? currentSolution : getMinMakeSpan(neighborhood, cache);
+            }
+            else
+            {
+                // only the neighbors up to the first improving one are built and evaluated
+                List<Swap> swaps = generateSwaps(currentSolution, graph);
+                if(mode == Mode.RANDOM_FIRST)
+                {
+                    Collections.shuffle(swaps, generator);
+                }
+                for(Swap swap : swaps)
+                {
+                    ResourceOrder neighbor = currentSolution.copy();
+                    swap.applyOn(neighbor);
+                    neighbors++;
+                    if(cache.makespan(neighbor) < makespan)
+                    {
+                        bestNeighbor = neighbor;
+                        break;
+                    }
+                }
+            }
+        }
+        while(cache.makespan(bestNeighbor) < cache.makespan(currentSolution) && !context.shouldStop());
+        context.stats.addIterations(iteration);
+        context.stats.addNeighborsGenerated(neighbors);
+        context.stats.addEvaluations(cache.misses());
+        if(cache.makespan(bestNeighbor) < cache.makespan(currentSolution))
+        {
+            // stopped before reaching a local optimum
+            return new Result(instance, bestNeighbor.toSchedule(), Result.ExitCause.Timeout, context.stats);
         }
-        while(bestNeighbor.toSchedule().makespan() < currentSolution.toSchedule().makespan());
-        return new Result(instance, currentSolution.toSchedule(), Result.ExitCause.Blocked);
+        return new Result(instance, currentSolution.toSchedule(), Result.ExitCause.Blocked, context.stats);
     }
 
-    ResourceOrder getMinMakeSpan(List<ResourceOrder> neighborhood)
+    /** Neighbor with the smallest makespan, each makespan being computed at most once (and not at all if it is in
+     * the cache). */
+    ResourceOrder getMinMakeSpan(List<ResourceOrder> neighborhood, MakespanCache cache)
     {
         int minSpan = Integer.MAX_VALUE;
         ResourceOrder bestOrder = null;
         for(ResourceOrder order : neighborhood)
         {
-            if (order.toSchedule().makespan() < minSpan)
+            int makespan = cache.makespan(order);
+            if (makespan < minSpan)
             {
-                minSpan = order.toSchedule().makespan();
+                minSpan = makespan;
                 bestOrder = order;
             }
         }
@@ -117,90 +139,18 @@ public class DescentSolver implements Solver {
 
 
 
-    int getTaskIndex(ResourceOrder order, int machine, Task task)
+    /** Moves of the neighborhood of the solver, block by block in the order of the critical path. `graph` is a
+     * scratch graph of the instance (see Neighborhood.moves()). */
+    List<Swap> generateSwaps(ResourceOrder order, DisjunctiveGraph graph)
     {
-        for(int i = 0 ; i < order.tasksByMachine[machine].length; i++)
-        {
-            if (order.tasksByMachine[machine][i].equals(task))
-            {
-                return i;
-            }
-        }
-        return -1;
+        return neighborhood.moves(order, graph);
     }
 
-    /** Returns a list of all blocks of the critical path. */
-    List<Block> blocksOfCriticalPath(ResourceOrder order)
-    {
-        int currentMachine;
-        int currentMachineCount = 1;
-        int currentFirstTaskIndex;
-
-        Task currentFirstTask;
-
-
-        Schedule sched = order.toSchedule();
-
-        List<Block> res = new ArrayList<Block>();
-        List<Task> criticalPath = sched.criticalPath();
-
-        currentFirstTask = criticalPath.get(0);
-        currentMachine = order.instance.machine(criticalPath.get(0));
-        currentFirstTaskIndex = getTaskIndex(order, currentMachine, currentFirstTask);
-
-        for(int i = 1; i<criticalPath.size(); i++)
-        {
-            if (order.instance.machine(criticalPath.get(i)) == currentMachine)
-            {
-                currentMachineCount++;
-            }
-            if(order.instance.machine(criticalPath.get(i)) != currentMachine)
-            {
-                if (currentMachineCount > 1) {
-                    //System.out.println("adding block machine "+currentMachine+" "+currentFirstTaskIndex+" "+getTaskIndex(order, currentMachine, criticalPath.get(i - 1)));
-                    res.add(new Block(currentMachine, currentFirstTaskIndex, getTaskIndex(order, currentMachine, criticalPath.get(i - 1))));
-                }
-                currentFirstTask = criticalPath.get(i);
-                currentMachine = order.instance.machine(currentFirstTask);
-                currentFirstTaskIndex = getTaskIndex(order, currentMachine, currentFirstTask);
-                currentMachineCount = 1;
-            }
-            if(i == criticalPath.size() - 1)
-            {
-                if (currentMachineCount > 1) {
-                    //System.out.println("adding block machine "+currentMachine+" "+currentFirstTaskIndex+" "+getTaskIndex(order, currentMachine, criticalPath.get(i - 1)));
-                    res.add(new Block(currentMachine, currentFirstTaskIndex, getTaskIndex(order, currentMachine, criticalPath.get(i))));
-                }
-            }
-        }
-        return res;
-    }
-
-    /** For a given block, return the possible swaps for the Nowicki and Smutnicki neighborhood */
-    List<Swap> neighbors(Block block)
-    {
-        List<Swap> swaps = new ArrayList<Swap>();
-        if (block.lastTask - block.firstTask + 1 == 2)
-        {
-            swaps.add(new Swap(block.machine, block.firstTask, block.lastTask));
-        }
-        else
-        {
-            swaps.add(new Swap(block.machine, block.firstTask, block.firstTask + 1));
-            swaps.add(new Swap(block.machine, block.lastTask, block.lastTask - 1));
-        }
-        return swaps;
-    }
-
-    List<ResourceOrder> generateNeighborhood(ResourceOrder order,List<Block> blocksOfCriticalPath)
+    /** Neighbors of the order in the neighborhood of the solver. `graph` is a scratch graph of the instance. */
+    List<ResourceOrder> generateNeighborhood(ResourceOrder order, DisjunctiveGraph graph)
     {
         List<ResourceOrder> neighborhood = new ArrayList<ResourceOrder>();
-        List<Swap> allSwaps = new ArrayList<Swap>();
-        for(Block block : blocksOfCriticalPath)
-        {
-            allSwaps.addAll(neighbors(block));
-        }
-        for(Swap swap : allSwaps)
+        for(Swap swap : generateSwaps(order, graph))
         {
             ResourceOrder newNeighbor = order.copy();
             swap.applyOn(newNeighbor);
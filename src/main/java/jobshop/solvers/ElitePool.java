@@ -0,0 +1,185 @@
+package jobshop.solvers;
+
+import jobshop.Instance;
+import jobshop.encodings.DisjunctiveGraph;
+import jobshop.encodings.ResourceOrder;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/** Thread-safe pool of the best distinct solutions found so far, with at most `capacity` elements.
+ *
+ * The distance between two solutions is the number of pairs of tasks executed on the same machine that are ordered
+ * differently in the two solutions. It is computed as the number of inversions between the two machine sequences,
+ * in O(numMachines * numJobs * log(numJobs)).
+ */
+class ElitePool {
+
+    /** A solution of the pool. Immutable. */
+    static final class Elite {
+        final ResourceOrder order;
+        final int makespan;
+        /** jobs[m * numJobs + i]: job of the i-th task on machine m */
+        final int[] jobs;
+        /** rank[m * numJobs + j]: position of the task of job j on machine m */
+        final int[] rank;
+
+        Elite(ResourceOrder order, int makespan, int[] jobs, int[] rank)
+        {
+            this.order = order;
+            this.makespan = makespan;
+            this.jobs = jobs;
+            this.rank = rank;
+        }
+    }
+
+    private final Instance instance;
+    private final int capacity;
+    private final List<Elite> elites = new ArrayList<>();
+
+    ElitePool(Instance instance, int capacity)
+    {
+        this.instance = instance;
+        this.capacity = capacity;
+    }
+
+    /** Adds the solution to the pool if it is not already in it and the pool is not full or the solution is better
+     * than the worst one, which is then removed. Returns true if the solution was added. */
+    synchronized boolean offer(DisjunctiveGraph solution)
+    {
+        int worst = worstIndex();
+        if(elites.size() == capacity && solution.makespan() >= elites.get(worst).makespan)
+        {
+            return false;
+        }
+        int[] jobs = jobsOf(solution);
+        for(Elite e : elites)
+        {
+            if(e.makespan == solution.makespan() && distance(e.rank, jobs) == 0)
+            {
+                return false;
+            }
+        }
+        Elite elite = new Elite(solution.toResourceOrder(), solution.makespan(), jobs, rankOf(jobs));
+        if(elites.size() == capacity)
+        {
+            elites.set(worst, elite);
+        }
+        else
+        {
+            elites.add(elite);
+        }
+        return true;
+    }
+
+    /** Returns a random solution of the pool, or null if it is empty. */
+    synchronized Elite pick(Random generator)
+    {
+        return elites.isEmpty() ? null : elites.get(generator.nextInt(elites.size()));
+    }
+
+    /** Returns a random solution of the pool that is different from the given one, or null if there is none. */
+    synchronized Elite pickOther(Elite other, Random generator)
+    {
+        if(elites.size() < 2)
+        {
+            return null;
+        }
+        Elite e;
+        do
+        {
+            e = elites.get(generator.nextInt(elites.size()));
+        }
+        while(e == other);
+        return e;
+    }
+
+    /** Returns the solution with the smallest makespan, or null if the pool is empty. */
+    synchronized Elite best()
+    {
+        Elite best = null;
+        for(Elite e : elites)
+        {
+            if(best == null || e.makespan < best.makespan)
+            {
+                best = e;
+            }
+        }
+        return best;
+    }
+
+    private int worstIndex()
+    {
+        int worst = 0;
+        for(int i = 1 ; i < elites.size() ; i++)
+        {
+            if(elites.get(i).makespan > elites.get(worst).makespan)
+            {
+                worst = i;
+            }
+        }
+        return worst;
+    }
+
+    /** Sequence of jobs on each machine of the graph. */
+    int[] jobsOf(DisjunctiveGraph graph)
+    {
+        int numJobs = instance.numJobs;
+        int[] jobs = new int[instance.numMachines * numJobs];
+        for(int m = 0 ; m < instance.numMachines ; m++)
+        {
+            for(int i = 0 ; i < numJobs ; i++)
+            {
+                jobs[m * numJobs + i] = graph.jobOf(graph.sequence[m][i]);
+            }
+        }
+        return jobs;
+    }
+
+    /** Position of each job on each machine. */
+    int[] rankOf(int[] jobs)
+    {
+        int numJobs = instance.numJobs;
+        int[] rank = new int[jobs.length];
+        for(int m = 0 ; m < instance.numMachines ; m++)
+        {
+            for(int i = 0 ; i < numJobs ; i++)
+            {
+                rank[m * numJobs + jobs[m * numJobs + i]] = i;
+            }
+        }
+        return rank;
+    }
+
+    /** Number of pairs of tasks that are ordered differently by the two solutions, the first one being given by
+     * the position of each job on each machine and the second one by the sequence of jobs on each machine. */
+    int distance(int[] rankA, int[] jobsB)
+    {
+        int numJobs = instance.numJobs;
+        // Fenwick tree counting the ranks (in A) of the tasks already seen on the machine
+        int[] seen = new int[numJobs + 1];
+        int inversions = 0;
+        for(int m = 0 ; m < instance.numMachines ; m++)
+        {
+            Arrays.fill(seen, 0);
+            for(int i = 0 ; i < numJobs ; i++)
+            {
+                int r = rankA[m * numJobs + jobsB[m * numJobs + i]] + 1;
+                // tasks seen before this one in B that come after it in A
+                int smallerOrEqual = 0;
+                for(int k = r ; k > 0 ; k -= k & -k)
+                {
+                    smallerOrEqual += seen[k];
+                }
+                inversions += i - smallerOrEqual;
+                for(int k = r ; k <= numJobs ; k += k & -k)
+                {
+                    seen[k]++;
+                }
+            }
+        }
+        return inversions;
+    }
+}
@@ -0,0 +1,333 @@
+package jobshop.solvers;
+
+import jobshop.Instance;
+import jobshop.Result;
+import jobshop.Solver;
+import jobshop.SolverContext;
+import jobshop.encodings.JobNumbers;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/** Genetic algorithm on the job numbers representation.
+ *
+ * The whole population is stored in a single flat array: individual i occupies `jobs[i * n .. (i+1) * n - 1]`
+ * where n is the number of tasks of the instance. Offspring are produced by binary tournament selection,
+ * precedence preserving crossover (PPX, Bierwirth et al.) and swap mutation, and only their makespan is computed.
+ *
+ * Each generation, the offspring are split in one chunk per thread. A worker builds and evaluates the offspring of its
+ * chunk with its own random generator and scratch buffers, so no allocation or synchronization takes place inside a
+ * generation. The best individuals of the previous generation are kept (elitism).
+ */
+public class GeneticSolver implements Solver {
+
+    static final int POPULATION_SIZE = 100;
+    static final int ELITE_SIZE = 2;
+    static final double MUTATION_PROBABILITY = 0.2;
+
+    private final int numThreads;
+
+    /** One worker per available core. */
+    public GeneticSolver()
+    {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    public GeneticSolver(int numThreads)
+    {
+        this.numThreads = Math.max(1, numThreads);
+    }
+
+    /** Per-thread state: random generator and scratch buffers for crossover and evaluation. */
+    static class Worker {
+        final Instance instance;
+        final Random generator;
+        // op identifiers (job * numTasks + occurrence) of the two parents, position by position
+        final int[] opsA;
+        final int[] opsB;
+        // for each op, the generation of the last crossover in which it was taken
+        final int[] taken;
+        int stamp = 0;
+        final int[] occurrences;
+        final int[] machineFree;
+        final int[] jobFree;
+        final int[] nextTask;
+
+        Worker(Instance instance, long seed)
+        {
+            int n = instance.numJobs * instance.numTasks;
+            this.instance = instance;
+            this.generator = new Random(seed);
+            opsA = new int[n];
+            opsB = new int[n];
+            taken = new int[n];
+            occurrences = new int[instance.numJobs];
+            machineFree = new int[instance.numMachines];
+            jobFree = new int[instance.numJobs];
+            nextTask = new int[instance.numJobs];
+        }
+
+        /** Builds and evaluates offspring number `from` to `to - 1`. */
+        void breed(int[] parents, int[] parentMakespans, int[] offspring, int[] offspringMakespans, int from, int to)
+        {
+            int n = opsA.length;
+            for(int child = from ; child < to ; child++)
+            {
+                int a = tournament(parentMakespans);
+                int b = tournament(parentMakespans);
+                crossover(parents, a * n, parents, b * n, offspring, child * n);
+                if(generator.nextDouble() < MUTATION_PROBABILITY)
+                {
+                    mutate(offspring, child * n);
+                }
+                offspringMakespans[child] = JobNumbers.makespan(instance, offspring, child * n,
+                        machineFree, jobFree, nextTask);
+            }
+        }
+
+        /** Binary tournament: index of the best of two random individuals. */
+        int tournament(int[] makespans)
+        {
+            int i = generator.nextInt(makespans.length);
+            int j = generator.nextInt(makespans.length);
+            return makespans[i] <= makespans[j] ? i : j;
+        }
+
+        /** Precedence preserving crossover: each position of the child is taken from a randomly chosen parent, as the
+         * leftmost operation of this parent that is not yet in the child. */
+        void crossover(int[] parentA, int offsetA, int[] parentB, int offsetB, int[] child, int offsetChild)
+        {
+            int n = opsA.length;
+            toOps(parentA, offsetA, opsA);
+            toOps(parentB, offsetB, opsB);
+            stamp++;
+            int nextA = 0;
+            int nextB = 0;
+            for(int i = 0 ; i < n ; i++)
+            {
+                int op;
+                if(generator.nextBoolean())
+                {
+                    while(taken[opsA[nextA]] == stamp)
+                    {
+                        nextA++;
+                    }
+                    op = opsA[nextA];
+                }
+                else
+                {
+                    while(taken[opsB[nextB]] == stamp)
+                    {
+                        nextB++;
+                    }
+                    op = opsB[nextB];
+                }
+                taken[op] = stamp;
+                child[offsetChild + i] = op / instance.numTasks;
+            }
+        }
+
+        /** Identifies each position of the sequence by its operation: the k-th occurrence of job j is the k-th task
+         * of job j. */
+        void toOps(int[] jobs, int offset, int[] ops)
+        {
+            Arrays.fill(occurrences, 0);
+            for(int i = 0 ; i < ops.length ; i++)
+            {
+                int job = jobs[offset + i];
+                ops[i] = job * instance.numTasks + occurrences[job]++;
+            }
+        }
+
+        /** Swaps the jobs at two random positions. */
+        void mutate(int[] jobs, int offset)
+        {
+            int n = opsA.length;
+            int i = offset + generator.nextInt(n);
+            int j = offset + generator.nextInt(n);
+            int aux = jobs[i];
+            jobs[i] = jobs[j];
+            jobs[j] = aux;
+        }
+    }
+
+    @Override
+    public Result solve(Instance instance, long deadline)
+    {
+        return solve(instance, new SolverContext(deadline));
+    }
+
+    @Override
+    public Result solve(Instance instance, SolverContext context)
+    {
+        long generations = 0;
+
+        int n = instance.numJobs * instance.numTasks;
+        int[] population = new int[POPULATION_SIZE * n];
+        int[] makespans = new int[POPULATION_SIZE];
+        int[] offspring = new int[POPULATION_SIZE * n];
+        int[] offspringMakespans = new int[POPULATION_SIZE];
+
+        Worker[] workers = new Worker[numThreads];
+        for(int w = 0 ; w < numThreads ; w++)
+        {
+            workers[w] = new Worker(instance, context.seed(w));
+        }
+
+        // initial population: the greedy solution and random permutations
+        JobNumbers greedy = new JobNumbers(new GreedyLRPTEST().solve(instance, context.deadline).schedule);
+        System.arraycopy(greedy.jobs, 0, population, 0, n);
+        for(int i = 1 ; i < POPULATION_SIZE ; i++)
+        {
+            for(int k = 0 ; k < n ; k++)
+            {
+                population[i * n + k] = k % instance.numJobs;
+            }
+            shuffle(population, i * n, n, workers[0].generator);
+        }
+        for(int i = 0 ; i < POPULATION_SIZE ; i++)
+        {
+            makespans[i] = JobNumbers.makespan(instance, population, i * n,
+                    workers[0].machineFree, workers[0].jobFree, workers[0].nextTask);
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(numThreads);
+        try
+        {
+            int chunk = (POPULATION_SIZE - ELITE_SIZE + numThreads - 1) / numThreads;
+            int bestMakespan = Integer.MAX_VALUE;
+            while(!context.shouldStop())
+            {
+                // the best individuals are kept in the first slots, workers fill the other ones
+                keepElite(population, makespans, offspring, offspringMakespans, n);
+                if(offspringMakespans[0] < bestMakespan)
+                {
+                    bestMakespan = offspringMakespans[0];
+                    context.improved(bestMakespan, generations);
+                }
+
+                List<Callable<Void>> tasks = new ArrayList<>();
+                for(int w = 0 ; w < numThreads ; w++)
+                {
+                    final Worker worker = workers[w];
+                    final int from = Math.min(POPULATION_SIZE, ELITE_SIZE + w * chunk);
+                    final int to = Math.min(POPULATION_SIZE, from + chunk);
+                    final int[] parents = population;
+                    final int[] parentMakespans = makespans;
+                    final int[] children = offspring;
+                    final int[] childrenMakespans = offspringMakespans;
+                    tasks.add(() -> {
+                        worker.breed(parents, parentMakespans, children, childrenMakespans, from, to);
+                        return null;
+                    });
+                }
+                for(Future<Void> f : executor.invokeAll(tasks))
+                {
+                    f.get();
+                }
+
+                int[] aux = population;
+                population = offspring;
+                offspring = aux;
+                aux = makespans;
+                makespans = offspringMakespans;
+                offspringMakespans = aux;
+                generations++;
+            }
+        }
+        catch (InterruptedException | ExecutionException e)
+        {
+            throw new RuntimeException(e);
+        }
+        finally
+        {
+            executor.shutdownNow();
+        }
+
+        int best = 0;
+        for(int i = 1 ; i < POPULATION_SIZE ; i++)
+        {
+            if(makespans[i] < makespans[best])
+            {
+                best = i;
+            }
+        }
+        JobNumbers sol = new JobNumbers(instance);
+        System.arraycopy(population, best * n, sol.jobs, 0, n);
+        sol.nextToSet = n;
+
+        context.stats.addIterations(generations);
+        context.stats.addNeighborsGenerated(generations * (POPULATION_SIZE - ELITE_SIZE));
+        context.stats.addEvaluations(POPULATION_SIZE + generations * (POPULATION_SIZE - ELITE_SIZE));
+
+        return new Result(instance, sol.toSchedule(), Result.ExitCause.Timeout, context.stats);
+    }
+
+    /** Copies the ELITE_SIZE best individuals of the population in the first slots of the offspring. Individuals
+     * identical to an elite already kept are skipped, unless no other one is left (e.g. a converged population). */
+    static void keepElite(int[] population, int[] makespans, int[] offspring, int[] offspringMakespans, int n)
+    {
+        for(int e = 0 ; e < ELITE_SIZE ; e++)
+        {
+            int best = -1;
+            for(int i = 0 ; i < makespans.length ; i++)
+            {
+                boolean alreadyKept = false;
+                for(int k = 0 ; k < e ; k++)
+                {
+                    alreadyKept |= offspringMakespans[k] == makespans[i]
+                            && sameSequence(population, i * n, offspring, k * n, n);
+                }
+                if(!alreadyKept && (best < 0 || makespans[i] < makespans[best]))
+                {
+                    best = i;
+                }
+            }
+            if(best < 0)
+            {
+                // every individual is a copy of a kept elite: keep the best one again
+                best = 0;
+                for(int i = 1 ; i < makespans.length ; i++)
+                {
+                    if(makespans[i] < makespans[best])
+                    {
+                        best = i;
+                    }
+                }
+            }
+            System.arraycopy(population, best * n, offspring, e * n, n);
+            offspringMakespans[e] = makespans[best];
+        }
+    }
+
+    static boolean sameSequence(int[] a, int offsetA, int[] b, int offsetB, int n)
+    {
+        for(int k = 0 ; k < n ; k++)
+        {
+            if(a[offsetA + k] != b[offsetB + k])
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /** Fisher–Yates shuffling of `array[offset .. offset + length - 1]` */
+    static void shuffle(int[] array, int offset, int length, Random random)
+    {
+        for(int i = length - 1 ; i > 0 ; i--)
+        {
+            int index = random.nextInt(i + 1);
+            int aux = array[offset + index];
+            array[offset + index] = array[offset + i];
+            array[offset + i] = aux;
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package jobshop.solvers;
 
+import jobshop.encodings.ResourceOrder;
 import jobshop.encodings.Task;
 
 import java.util.List;
@@ -7,7 +8,7 @@ import java.util.List;
 public class GreedySPT extends GreedySolver{
 
     @Override
-    protected Task getOptimalTask(List<Task> schedulableTasks)
+    protected Task getOptimalTask(ResourceOrder order, List<Task> schedulableTasks)
     {
         int minTime = Integer.MAX_VALUE;
         Task optim = new Task(0,0);
@@ -1,5 +1,6 @@
 package jobshop.solvers;
 
+import jobshop.encodings.ResourceOrder;
 import jobshop.encodings.Task;
 
 import java.util.List;
@@ -7,8 +8,8 @@ import java.util.List;
 public class GreedySPTEST extends GreedySPT{
 
     @Override
-    protected Task getOptimalTask(List<Task> schedulableTasks)
+    protected Task getOptimalTask(ResourceOrder order, List<Task> schedulableTasks)
     {
-        return super.getOptimalTask(order.getEarliestSchedulableTasks(schedulableTasks));
+        return super.getOptimalTask(order, order.getEarliestSchedulableTasks(schedulableTasks));
     }
 }
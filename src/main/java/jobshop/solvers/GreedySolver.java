@@ -11,18 +11,17 @@ import java.util.List;
 
 public class GreedySolver implements Solver{
 
-    protected ResourceOrder order;
-
     public GreedySolver(){}
 
     public Result solve(Instance instance, long deadline)
     {
-        order = new ResourceOrder(instance);
+        // local to the call, so that a solver can build several schedules concurrently
+        ResourceOrder order = new ResourceOrder(instance);
         while (!order.allScheduled())
         {
             List<Task> schedulableTasks = order.getSchedulableTasks();
             //printList("Schedulable", schedulableTasks);
-            Task optim = getOptimalTask(schedulableTasks);
+            Task optim = getOptimalTask(order, schedulableTasks);
             //System.out.println("optim:"+optim+":optim");
             int machine = instance.machine(optim);
             order.tasksByMachine[machine][order.nextFreeSlot[machine]] = optim;
@@ -34,7 +33,8 @@ public class GreedySolver implements Solver{
         return new Result(instance, order.toSchedule(), Result.ExitCause.Blocked);
     }
 
-    protected Task getOptimalTask(List<Task> schedulableTasks)
+    /** Chooses the next task to schedule among the schedulable ones, given the partial order built so far. */
+    protected Task getOptimalTask(ResourceOrder order, List<Task> schedulableTasks)
     {
         return new Task(-1,-1);
     }
@@ -0,0 +1,141 @@
+package jobshop.solvers;
+
+import jobshop.Instance;
+import jobshop.Result;
+import jobshop.Schedule;
+import jobshop.Solver;
+import jobshop.SolverContext;
+import jobshop.encodings.ResourceOrder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/** Island model: several independent tabu searches, one per thread, that periodically exchange their best solutions.
+ *
+ * Each island has its own tabu memory and random tie-breaking. Every `migrationPeriod` iterations, an island publishes
+ * its best solution in its slot of a lock-free exchange and reads the slot of the next island on the ring. If the
+ * immigrant is better than its own best solution, the island restarts from it.
+ */
+public class IslandTabouSolver implements Solver {
+
+    static final int DEFAULT_MIGRATION_PERIOD = 500;
+
+    /** A solution published by an island. Immutable once published. */
+    static final class Migrant {
+        final ResourceOrder order;
+        final int makespan;
+
+        Migrant(ResourceOrder order, int makespan)
+        {
+            this.order = order;
+            this.makespan = makespan;
+        }
+    }
+
+    private final int numIslands;
+    private final int migrationPeriod;
+
+    /** One island per available core. */
+    public IslandTabouSolver()
+    {
+        this(Runtime.getRuntime().availableProcessors(), DEFAULT_MIGRATION_PERIOD);
+    }
+
+    public IslandTabouSolver(int numIslands)
+    {
+        this(numIslands, DEFAULT_MIGRATION_PERIOD);
+    }
+
+    public IslandTabouSolver(int numIslands, int migrationPeriod)
+    {
+        this.numIslands = Math.max(1, numIslands);
+        this.migrationPeriod = migrationPeriod;
+    }
+
+    @Override
+    public Result solve(Instance instance, long deadline)
+    {
+        return solve(instance, new SolverContext(deadline));
+    }
+
+    @Override
+    public Result solve(Instance instance, SolverContext context)
+    {
+        Schedule startSolution = new GreedyLRPTEST().solve(instance, context.deadline).schedule;
+        ResourceOrder start = new ResourceOrder(startSolution);
+
+        AtomicReferenceArray<Migrant> exchange = new AtomicReferenceArray<>(numIslands);
+        AtomicBoolean optimalFound = new AtomicBoolean(false);
+
+        List<Callable<TabuSearch>> islands = new ArrayList<>();
+        for(int i = 0 ; i < numIslands ; i++)
+        {
+            final int island = i;
+            islands.add(() -> runIsland(instance, start, island, exchange, optimalFound, context));
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(numIslands);
+        try
+        {
+            TabuSearch bestIsland = null;
+            for(Future<TabuSearch> f : executor.invokeAll(islands))
+            {
+                TabuSearch island = f.get();
+                if(bestIsland == null || island.best.makespan() < bestIsland.best.makespan())
+                {
+                    bestIsland = island;
+                }
+            }
+            Result.ExitCause cause = optimalFound.get() ? Result.ExitCause.ProvedOptimal : Result.ExitCause.Timeout;
+            return new Result(instance, bestIsland.best.toSchedule(), cause, context.stats);
+        }
+        catch (InterruptedException | ExecutionException e)
+        {
+            throw new RuntimeException(e);
+        }
+        finally
+        {
+            executor.shutdownNow();
+        }
+    }
+
+    private TabuSearch runIsland(Instance instance, ResourceOrder start, int island,
+                                 AtomicReferenceArray<Migrant> exchange, AtomicBoolean optimalFound,
+                                 SolverContext context)
+    {
+        TabuSearch search = new TabuSearch(instance, context.seed(island));
+        search.reset(start);
+        int neighbor = (island + 1) % numIslands;
+        while(!context.shouldStop() && !optimalFound.get())
+        {
+            search.run(migrationPeriod, context);
+            if(search.optimal)
+            {
+                optimalFound.set(true);
+                break;
+            }
+
+            // publish our best solution if it improves on the one we published before
+            Migrant published = exchange.get(island);
+            if(published == null || search.best.makespan() < published.makespan)
+            {
+                exchange.set(island, new Migrant(search.best.toResourceOrder(), search.best.makespan()));
+            }
+            // adopt the best solution of the next island if it is better than ours
+            Migrant immigrant = exchange.get(neighbor);
+            if(immigrant != null && immigrant.makespan < search.best.makespan())
+            {
+                search.reset(immigrant.order);
+                context.stats.addRestarts(1);
+            }
+        }
+        return search;
+    }
+}
@@ -0,0 +1,228 @@
+package jobshop.solvers;
+
+import jobshop.Instance;
+import jobshop.Result;
+import jobshop.Schedule;
+import jobshop.Solver;
+import jobshop.SolverContext;
+import jobshop.encodings.DisjunctiveGraph;
+import jobshop.encodings.ResourceOrder;
+
+import java.util.Random;
+
+/** Iterated local search on the resource order representation.
+ *
+ * Each cycle perturbs the current solution with a kick of a few random swaps of adjacent operations in critical blocks
+ * (swaps that can never create a cycle), descends from it to a local optimum of the N5 neighborhood, and replaces
+ * the current solution by this local optimum if the acceptance criterion allows it. Cycles are repeated until the
+ * deadline, and the best local optimum is returned.
+ *
+ * The descent picks moves by their constant time estimate (DisjunctiveGraph.swapEstimate()), and only evaluates the
+ * graph of the moves it applies. Solutions are stored in disjunctive graphs allocated once per run, so that a
+ * kick-descend cycle allocates nothing.
+ */
+public class IteratedLocalSearchSolver implements Solver
+{
+
+    /** Which local optima replace the current solution. */
+    public enum Acceptance
+    {
+        /** only the ones strictly better than the current solution */
+        BETTER,
+        /** the ones at least as good as the current solution, so that the search can drift along plateaus */
+        BETTER_OR_EQUAL,
+        /** all of them: a random walk among local optima, the best one being kept aside */
+        RANDOM_WALK
+    }
+
+    /** Default number of swaps of a kick. */
+    static final int KICK_SIZE = 3;
+
+    private final int kickSize;
+    private final Acceptance acceptance;
+
+    /** Kicks of KICK_SIZE swaps, and a random walk among local optima, which gave the best results on the ft, la and
+     * ta instances. */
+    public IteratedLocalSearchSolver()
+    {
+        this(KICK_SIZE, Acceptance.RANDOM_WALK);
+    }
+
+    public IteratedLocalSearchSolver(int kickSize, Acceptance acceptance)
+    {
+        this.kickSize = kickSize;
+        this.acceptance = acceptance;
+    }
+
+    /** Scratch state of a run: moves of the solution being modified, and counters. */
+    static class Search
+    {
+        final Random generator;
+        /** machine, position of the first swapped operation and estimated makespan of each move */
+        final int[] moveMachine;
+        final int[] movePos;
+        final int[] moveEstimate;
+        long estimates = 0;
+        long evaluations = 0;
+
+        Search(Instance instance, long seed)
+        {
+            int numOps = instance.numJobs * instance.numTasks;
+            generator = new Random(seed);
+            moveMachine = new int[numOps];
+            movePos = new int[numOps];
+            moveEstimate = new int[numOps];
+        }
+
+        /** Applies `size` random swaps of adjacent operations of critical blocks, the blocks being updated after each
+         * swap. */
+        void kick(DisjunctiveGraph graph, int size)
+        {
+            for(int k = 0 ; k < size ; k++)
+            {
+                int numMoves = SimulatedAnnealingSolver.collectMoves(graph, moveMachine, movePos);
+                if(numMoves == 0)
+                {
+                    return;
+                }
+                int move = generator.nextInt(numMoves);
+                graph.swap(moveMachine[move], movePos[move]);
+                graph.evaluate();
+                evaluations++;
+            }
+        }
+
+        /** Descends to a local optimum of the N5 neighborhood: moves are tried by increasing estimate, and the first
+         * one that actually improves is applied. */
+        void descend(DisjunctiveGraph graph)
+        {
+            boolean improved = true;
+            while(improved)
+            {
+                improved = false;
+                int numMoves = collectN5Moves(graph);
+                while(!improved)
+                {
+                    // most promising move not tried yet
+                    int move = -1;
+                    for(int i = 0 ; i < numMoves ; i++)
+                    {
+                        if(moveEstimate[i] < graph.makespan() && (move < 0 || moveEstimate[i] < moveEstimate[move]))
+                        {
+                            move = i;
+                        }
+                    }
+                    if(move < 0)
+                    {
+                        // no move can improve: the estimate is never above the actual makespan
+                        return;
+                    }
+                    int makespan = graph.makespan();
+                    graph.swap(moveMachine[move], movePos[move]);
+                    graph.evaluate();
+                    evaluations++;
+                    if(graph.makespan() < makespan)
+                    {
+                        improved = true;
+                    }
+                    else
+                    {
+                        // swapping again restores the order
+                        graph.swap(moveMachine[move], movePos[move]);
+                        graph.evaluate();
+                        evaluations++;
+                        moveEstimate[move] = Integer.MAX_VALUE;
+                    }
+                }
+            }
+        }
+
+        /** Fills the move arrays with the swaps of the first two and last two operations of each critical block, and
+         * their estimates. Returns the number of moves. */
+        int collectN5Moves(DisjunctiveGraph graph)
+        {
+            int numMoves = 0;
+            for(int b = 0 ; b < graph.numBlocks ; b++)
+            {
+                moveMachine[numMoves] = graph.blockMachine[b];
+                movePos[numMoves++] = graph.blockFirst[b];
+                if(graph.blockLast[b] - graph.blockFirst[b] > 1)
+                {
+                    moveMachine[numMoves] = graph.blockMachine[b];
+                    movePos[numMoves++] = graph.blockLast[b] - 1;
+                }
+            }
+            for(int i = 0 ; i < numMoves ; i++)
+            {
+                moveEstimate[i] = graph.swapEstimate(moveMachine[i], movePos[i]);
+            }
+            estimates += numMoves;
+            return numMoves;
+        }
+    }
+
+    @Override
+    public Result solve(Instance instance, long deadline)
+    {
+        return solve(instance, new SolverContext(deadline));
+    }
+
+    @Override
+    public Result solve(Instance instance, SolverContext context)
+    {
+        Schedule startSolution = context.warmStart != null ? context.warmStart
+                : new GreedyLRPTEST().solve(instance, context.deadline).schedule;
+
+        Search search = new Search(instance, context.seed);
+        DisjunctiveGraph current = new DisjunctiveGraph(new ResourceOrder(startSolution));
+        DisjunctiveGraph candidate = new DisjunctiveGraph(instance);
+        DisjunctiveGraph best = new DisjunctiveGraph(instance);
+        search.descend(current);
+        best.copyFrom(current);
+        context.improved(best.makespan(), 0);
+
+        Result.ExitCause cause = Result.ExitCause.Timeout;
+        long cycle = 0;
+        while(!context.shouldStop())
+        {
+            if(best.numBlocks == 0)
+            {
+                // the critical path is a single job: no schedule can be shorter
+                cause = Result.ExitCause.ProvedOptimal;
+                break;
+            }
+            cycle++;
+            candidate.copyFrom(current);
+            search.kick(candidate, kickSize);
+            search.descend(candidate);
+
+            if(accepts(candidate.makespan(), current.makespan(), acceptance))
+            {
+                current.copyFrom(candidate);
+            }
+            if(candidate.makespan() < best.makespan())
+            {
+                best.copyFrom(candidate);
+                context.improved(best.makespan(), cycle);
+            }
+        }
+        context.stats.addIterations(cycle);
+        context.stats.addNeighborsGenerated(search.estimates);
+        context.stats.addEvaluations(search.estimates + search.evaluations);
+        return new Result(instance, best.toSchedule(), cause, context.stats);
+    }
+
+    /** True if a local optimum of the given makespan replaces the current solution. */
+    static boolean accepts(int candidate, int current, Acceptance acceptance)
+    {
+        switch(acceptance)
+        {
+            case BETTER:
+                return candidate < current;
+            case BETTER_OR_EQUAL:
+                return candidate <= current;
+            default:
+                return true;
+        }
+    }
+}
@@ -0,0 +1,253 @@
+package jobshop.solvers;
+
+import jobshop.Instance;
+import jobshop.Result;
+import jobshop.Schedule;
+import jobshop.Solver;
+import jobshop.SolverContext;
+import jobshop.encodings.DisjunctiveGraph;
+import jobshop.encodings.ResourceOrder;
+import jobshop.encodings.Task;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/** Large neighborhood search on time windows.
+ *
+ * Starting from the shifting bottleneck solution, the relative order of the tasks that start inside a time window
+ * is freed while every other pair of tasks keeps its order in the incumbent. This subproblem is solved with the
+ * branch and bound of BranchAndBoundSolver, limited to `MAX_NODES` nodes, minimizing the longest path through the
+ * tasks of the window. Any new path goes through a task of the window, so the makespan never increases, and it
+ * decreases once the windows have shortened every critical path.
+ *
+ * Each round processes one window per thread; the windows are consecutive and do not overlap, so their improvements
+ * only reorder disjoint segments of the machine sequences and can be merged. The windows slide over the whole
+ * schedule; after a complete sweep without improvement of the makespan, they are made twice as large.
+ */
+public class LargeNeighborhoodSolver implements Solver {
+
+    /** Initial number of tasks per machine in a window. */
+    static final int WINDOW_TASKS = 4;
+
+    /** Number of nodes of the branch and bound of a window. */
+    static final long MAX_NODES = 500;
+
+    private final int numThreads;
+
+    /** One window per available core. */
+    public LargeNeighborhoodSolver()
+    {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    public LargeNeighborhoodSolver(int numThreads)
+    {
+        this.numThreads = Math.max(1, numThreads);
+    }
+
+    @Override
+    public Result solve(Instance instance, long deadline)
+    {
+        return solve(instance, new SolverContext(deadline));
+    }
+
+    @Override
+    public Result solve(Instance instance, SolverContext context)
+    {
+        Schedule startSolution = new ShiftingBottleneckSolver().solve(instance, context).schedule;
+        DisjunctiveGraph incumbent = new DisjunctiveGraph(new ResourceOrder(startSolution));
+        DisjunctiveGraph merged = new DisjunctiveGraph(instance);
+
+        int initialWidth = Math.max(1, incumbent.makespan() * WINDOW_TASKS / instance.numJobs);
+        int width = initialWidth;
+        int windowStart = 0;
+        boolean improvedInSweep = false;
+        long rounds = 0;
+
+        ExecutorService executor = Executors.newFixedThreadPool(numThreads);
+        try
+        {
+            while(!context.shouldStop() && incumbent.numBlocks > 0)
+            {
+                rounds++;
+                context.stats.addIterations(1);
+                context.stats.addNeighborsGenerated(numThreads);
+                List<Callable<int[][]>> windows = new ArrayList<>();
+                for(int k = 0 ; k < numThreads ; k++)
+                {
+                    final int from = windowStart + k * width;
+                    final int to = from + width;
+                    windows.add(() -> solveWindow(incumbent, from, to, context));
+                }
+
+                List<int[][]> improvements = new ArrayList<>();
+                for(Future<int[][]> f : executor.invokeAll(windows))
+                {
+                    if(f.get() != null)
+                    {
+                        improvements.add(f.get());
+                    }
+                }
+                if(!improvements.isEmpty())
+                {
+                    int makespan = incumbent.makespan();
+                    accept(incumbent, merged, improvements);
+                    if(incumbent.makespan() < makespan)
+                    {
+                        improvedInSweep = true;
+                        context.improved(incumbent.makespan(), rounds);
+                    }
+                }
+
+                windowStart += numThreads * width;
+                if(windowStart >= incumbent.makespan())
+                {
+                    // end of a sweep: enlarge the windows if nothing was found
+                    width = improvedInSweep ? initialWidth : Math.min(2 * width, incumbent.makespan());
+                    windowStart = 0;
+                    improvedInSweep = false;
+                }
+            }
+        }
+        catch (InterruptedException | ExecutionException e)
+        {
+            throw new RuntimeException(e);
+        }
+        finally
+        {
+            executor.shutdownNow();
+        }
+        Result.ExitCause cause = incumbent.numBlocks == 0 ? Result.ExitCause.ProvedOptimal : Result.ExitCause.Timeout;
+        return new Result(instance, incumbent.toSchedule(), cause, context.stats);
+    }
+
+    /** Solves the subproblem in which the tasks starting in [from, to[ can be reordered.
+     * Returns the machine sequences of a solution with a shorter longest path through these tasks, or null if none
+     * was found. */
+    static int[][] solveWindow(DisjunctiveGraph incumbent, int from, int to, SolverContext context)
+    {
+        Instance instance = incumbent.instance;
+        int numJobs = instance.numJobs;
+        boolean[] inWindow = new boolean[incumbent.head.length];
+        int value = 0;
+        for(int op = 0 ; op < inWindow.length ; op++)
+        {
+            if(incumbent.head[op] >= from && incumbent.head[op] < to)
+            {
+                inWindow[op] = true;
+                value = Math.max(value, incumbent.head[op] + incumbent.duration(op) + incumbent.tail[op]);
+            }
+        }
+
+        byte[] order = new byte[instance.numMachines * numJobs * numJobs];
+        boolean free = false;
+        for(int m = 0 ; m < instance.numMachines ; m++)
+        {
+            for(int i = 0 ; i < numJobs ; i++)
+            {
+                int opA = incumbent.sequence[m][i];
+                int a = incumbent.jobOf(opA);
+                for(int k = i + 1 ; k < numJobs ; k++)
+                {
+                    int opB = incumbent.sequence[m][k];
+                    int b = incumbent.jobOf(opB);
+                    if(inWindow[opA] && inWindow[opB])
+                    {
+                        free = true;
+                    }
+                    else
+                    {
+                        order[(m * numJobs + a) * numJobs + b] = 1;
+                        order[(m * numJobs + b) * numJobs + a] = -1;
+                    }
+                }
+            }
+        }
+        if(!free)
+        {
+            return null;
+        }
+
+        BranchAndBoundSolver.Search search = new BranchAndBoundSolver.Search(
+                instance, incumbent.toSchedule(), value, context, 0, MAX_NODES, inWindow);
+        new BranchAndBoundSolver.Node(search, order, 0).compute();
+        if(search.upperBound.get() >= value)
+        {
+            return null;
+        }
+
+        ResourceOrder improvedOrder = new ResourceOrder(search.incumbent());
+        int[][] sequences = new int[instance.numMachines][numJobs];
+        for(int m = 0 ; m < instance.numMachines ; m++)
+        {
+            for(int i = 0 ; i < numJobs ; i++)
+            {
+                Task t = improvedOrder.tasksByMachine[m][i];
+                sequences[m][i] = incumbent.operation(t.job, t.task);
+            }
+        }
+        return sequences;
+    }
+
+    /** Replaces the incumbent by the merge of all improvements if it is acyclic and at least as good as each of them,
+     * or else by the best improvement. Neither has a larger makespan than the incumbent. */
+    static void accept(DisjunctiveGraph incumbent, DisjunctiveGraph merged, List<int[][]> improvements)
+    {
+        int numMachines = incumbent.sequence.length;
+        int numJobs = incumbent.instance.numJobs;
+
+        // every improvement only reorders the segments of its own window: apply all of them at once
+        merged.copyFrom(incumbent);
+        for(int m = 0 ; m < numMachines ; m++)
+        {
+            int[] sequence = incumbent.sequence[m].clone();
+            for(int[][] improvement : improvements)
+            {
+                for(int i = 0 ; i < numJobs ; i++)
+                {
+                    if(improvement[m][i] != incumbent.sequence[m][i])
+                    {
+                        sequence[i] = improvement[m][i];
+                    }
+                }
+            }
+            merged.setSequence(m, sequence);
+        }
+        boolean mergedValid = merged.evaluate();
+
+        int[][] best = null;
+        int bestMakespan = Integer.MAX_VALUE;
+        DisjunctiveGraph single = new DisjunctiveGraph(incumbent.instance);
+        for(int[][] improvement : improvements)
+        {
+            for(int m = 0 ; m < numMachines ; m++)
+            {
+                single.setSequence(m, improvement[m]);
+            }
+            single.evaluate();
+            if(single.makespan() < bestMakespan)
+            {
+                best = improvement;
+                bestMakespan = single.makespan();
+            }
+        }
+
+        if(mergedValid && merged.makespan() <= bestMakespan && merged.makespan() <= incumbent.makespan())
+        {
+            incumbent.copyFrom(merged);
+        }
+        else
+        {
+            for(int m = 0 ; m < numMachines ; m++)
+            {
+                incumbent.setSequence(m, best[m]);
+            }
+            incumbent.evaluate();
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package jobshop.solvers;
+
+import jobshop.encodings.DisjunctiveGraph;
+import jobshop.encodings.ResourceOrder;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/** Neighborhoods of a solution explored by the local search solvers, all built from the blocks of its critical path
+ * (maximal sequences of critical operations on the same machine). */
+public enum Neighborhood
+{
+    /** Nowicki and Smutnicki: swap the first two and the last two operations of each block. Small and always
+     * feasible, but local optima are reached quickly. */
+    N5,
+    /** Insertions: move each operation of a block to the beginning or to the end of the block (Zhang et al.), which
+     * includes the moves of N5. Moves that may create a cycle are discarded with the constant time test of
+     * DisjunctiveGraph.canMove(). */
+    N7;
+
+    /** Moves of this neighborhood from the order, block by block in the order of the critical path. `graph` is a
+     * scratch graph of the instance, in which the order is loaded to find its critical blocks. */
+    List<Swap> moves(ResourceOrder order, DisjunctiveGraph graph)
+    {
+        graph.load(order);
+        graph.evaluate();
+        List<Swap> swaps = new ArrayList<Swap>();
+        for(int b = 0 ; b < graph.numBlocks ; b++)
+        {
+            if(this == N7)
+            {
+                insertions(graph, b, swaps);
+            }
+            else
+            {
+                swaps(graph, b, swaps);
+            }
+        }
+        return swaps;
+    }
+
+    /** Adds the swaps of the first two and of the last two operations of block b of the graph. */
+    static void swaps(DisjunctiveGraph graph, int b, List<Swap> swaps)
+    {
+        int machine = graph.blockMachine[b];
+        int first = graph.blockFirst[b];
+        int last = graph.blockLast[b];
+        if(last - first + 1 == 2)
+        {
+            swaps.add(new Swap(machine, first, last));
+        }
+        else
+        {
+            swaps.add(new Swap(machine, first, first + 1));
+            swaps.add(new Swap(machine, last, last - 1));
+        }
+    }
+
+    /** Adds the moves of the operations of block b of the graph to the beginning or to the end of the block that
+     * cannot create a cycle. */
+    static void insertions(DisjunctiveGraph graph, int b, List<Swap> swaps)
+    {
+        int machine = graph.blockMachine[b];
+        int first = graph.blockFirst[b];
+        int last = graph.blockLast[b];
+        // move to the beginning of the block
+        for(int i = first + 1 ; i <= last ; i++)
+        {
+            if(graph.canMove(machine, i, first))
+            {
+                swaps.add(new Swap(machine, i, first));
+            }
+        }
+        // move to the end of the block (in a block of two, this is the move to the beginning, already added)
+        int from = last - first == 1 ? last : first;
+        for(int i = from ; i < last ; i++)
+        {
+            if(graph.canMove(machine, i, last))
+            {
+                swaps.add(new Swap(machine, i, last));
+            }
+        }
+    }
+}
@@ -0,0 +1,199 @@
+package jobshop.solvers;
+
+import jobshop.Instance;
+import jobshop.Result;
+import jobshop.Schedule;
+import jobshop.Solver;
+import jobshop.SolverContext;
+import jobshop.encodings.DisjunctiveGraph;
+import jobshop.encodings.ResourceOrder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/** Tabu search with an elite pool and path relinking, in the spirit of i-TSAB (Nowicki and Smutnicki).
+ *
+ * Every tabu run ends when its best solution has not improved for `STAGNATION` iterations, and its best solution is
+ * offered to a pool of the best distinct solutions found so far. The next run starts halfway on a path between two
+ * elites: starting from the first one, adjacent tasks that are ordered differently in the second one are swapped
+ * until half of the distance between them has been covered.
+ *
+ * One worker per core performs such restarts concurrently, all of them sharing the same pool.
+ */
+public class PathRelinkingSolver implements Solver {
+
+    static final int POOL_SIZE = 8;
+
+    /** number of iterations without improvement after which a tabu run is stopped */
+    static final int STAGNATION = 2000;
+
+    private final int numThreads;
+
+    /** One worker per available core. */
+    public PathRelinkingSolver()
+    {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    public PathRelinkingSolver(int numThreads)
+    {
+        this.numThreads = Math.max(1, numThreads);
+    }
+
+    @Override
+    public Result solve(Instance instance, long deadline)
+    {
+        return solve(instance, new SolverContext(deadline));
+    }
+
+    @Override
+    public Result solve(Instance instance, SolverContext context)
+    {
+        Schedule startSolution = new GreedyLRPTEST().solve(instance, context.deadline).schedule;
+        ResourceOrder start = new ResourceOrder(startSolution);
+        ElitePool pool = new ElitePool(instance, POOL_SIZE);
+        AtomicBoolean optimalFound = new AtomicBoolean(false);
+
+        List<Callable<Void>> workers = new ArrayList<>();
+        for(int i = 0 ; i < numThreads ; i++)
+        {
+            final int worker = i;
+            workers.add(() -> {
+                runWorker(instance, start, pool, worker, optimalFound, context);
+                return null;
+            });
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(numThreads);
+        try
+        {
+            for(Future<Void> f : executor.invokeAll(workers))
+            {
+                f.get();
+            }
+        }
+        catch (InterruptedException | ExecutionException e)
+        {
+            throw new RuntimeException(e);
+        }
+        finally
+        {
+            executor.shutdownNow();
+        }
+
+        Result.ExitCause cause = optimalFound.get() ? Result.ExitCause.ProvedOptimal : Result.ExitCause.Timeout;
+        return new Result(instance, pool.best().order.toSchedule(), cause, context.stats);
+    }
+
+    private void runWorker(Instance instance, ResourceOrder start, ElitePool pool, int worker,
+                           AtomicBoolean optimalFound, SolverContext context)
+    {
+        TabuSearch search = new TabuSearch(instance, context.seed(worker));
+        DisjunctiveGraph path = new DisjunctiveGraph(instance);
+        Random generator = new Random(context.seed(worker));
+        int[] candidateMachine = new int[instance.numMachines * instance.numJobs];
+        int[] candidatePos = new int[instance.numMachines * instance.numJobs];
+
+        search.reset(start);
+        while(true)
+        {
+            runUntilStagnation(search, context);
+            pool.offer(search.best);
+            if(search.optimal)
+            {
+                optimalFound.set(true);
+            }
+            if(optimalFound.get() || context.shouldStop())
+            {
+                return;
+            }
+
+            ElitePool.Elite from = pool.pick(generator);
+            ElitePool.Elite to = pool.pickOther(from, generator);
+            if(to == null)
+            {
+                // not enough distinct elites yet: search again from one of them with a fresh tabu memory
+                search.reset(from.order);
+                context.stats.addRestarts(1);
+            }
+            else
+            {
+                path.load(from.order);
+                path.evaluate();
+                relink(path, to, pool.distance(to.rank, from.jobs) / 2, candidateMachine, candidatePos, generator);
+                search.reset(path);
+                context.stats.addRestarts(1);
+            }
+        }
+    }
+
+    /** Runs the tabu search until its best solution has not improved for STAGNATION iterations. */
+    static void runUntilStagnation(TabuSearch search, SolverContext context)
+    {
+        int lastImprovement = search.iteration;
+        int bestMakespan = search.best.makespan();
+        while(search.iteration - lastImprovement < STAGNATION && !search.optimal && !context.shouldStop())
+        {
+            search.run(100, context);
+            if(search.best.makespan() < bestMakespan)
+            {
+                bestMakespan = search.best.makespan();
+                lastImprovement = search.iteration;
+            }
+        }
+    }
+
+    /** Moves the solution `steps` swaps closer to the guiding solution. Each step swaps two adjacent tasks that are
+     * ordered differently in the guiding solution, chosen at random among the ones that do not create a cycle. */
+    static void relink(DisjunctiveGraph path, ElitePool.Elite guide, int steps,
+                       int[] candidateMachine, int[] candidatePos, Random generator)
+    {
+        int numJobs = path.instance.numJobs;
+        for(int step = 0 ; step < steps ; step++)
+        {
+            int numCandidates = 0;
+            for(int m = 0 ; m < path.sequence.length ; m++)
+            {
+                for(int pos = 0 ; pos < numJobs - 1 ; pos++)
+                {
+                    int first = path.jobOf(path.sequence[m][pos]);
+                    int second = path.jobOf(path.sequence[m][pos + 1]);
+                    if(guide.rank[m * numJobs + first] > guide.rank[m * numJobs + second])
+                    {
+                        candidateMachine[numCandidates] = m;
+                        candidatePos[numCandidates++] = pos;
+                    }
+                }
+            }
+
+            boolean moved = false;
+            while(!moved && numCandidates > 0)
+            {
+                int c = generator.nextInt(numCandidates);
+                path.swap(candidateMachine[c], candidatePos[c]);
+                moved = path.evaluate();
+                if(!moved)
+                {
+                    // the swap creates a cycle: undo it and forget this candidate
+                    path.swap(candidateMachine[c], candidatePos[c]);
+                    numCandidates--;
+                    candidateMachine[c] = candidateMachine[numCandidates];
+                    candidatePos[c] = candidatePos[numCandidates];
+                }
+            }
+            if(!moved)
+            {
+                break;
+            }
+        }
+        // heads and tails may have been invalidated by a rejected swap
+        path.evaluate();
+    }
+}
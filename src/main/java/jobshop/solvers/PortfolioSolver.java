@@ -0,0 +1,90 @@
+package jobshop.solvers;
+
+import jobshop.Instance;
+import jobshop.Result;
+import jobshop.Solver;
+import jobshop.SolverContext;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/** Runs several solvers concurrently on the same instance and returns the best result.
+ *
+ * All runs share a child of the caller's context, whose target is the lower bound of the instance: as soon as one of
+ * them reports a makespan equal to the lower bound (or to the caller's target), or returns a solution proved optimal,
+ * the other runs are stopped. Solvers that do not poll their context keep running until the deadline.
+ */
+public class PortfolioSolver implements Solver {
+
+    private final List<Solver> solvers;
+
+    public PortfolioSolver(Solver... solvers)
+    {
+        this(Arrays.asList(solvers));
+    }
+
+    public PortfolioSolver(List<Solver> solvers)
+    {
+        if(solvers.isEmpty())
+        {
+            throw new IllegalArgumentException("A portfolio needs at least one solver");
+        }
+        this.solvers = solvers;
+    }
+
+    @Override
+    public Result solve(Instance instance, long deadline)
+    {
+        return solve(instance, new SolverContext(deadline));
+    }
+
+    @Override
+    public Result solve(Instance instance, SolverContext context)
+    {
+        int lowerBound = instance.lowerBound();
+        SolverContext shared = context.child(context.deadline, lowerBound);
+
+        ExecutorService executor = Executors.newFixedThreadPool(solvers.size());
+        CompletionService<Result> runs = new ExecutorCompletionService<>(executor);
+        try
+        {
+            for(Solver solver : solvers)
+            {
+                runs.submit(() -> solver.solve(instance, shared));
+            }
+
+            Result best = null;
+            for(int i = 0 ; i < solvers.size() ; i++)
+            {
+                Result result = runs.take().get();
+                if(result.cause == Result.ExitCause.ProvedOptimal)
+                {
+                    shared.stop();
+                }
+                if(best == null || result.schedule.makespan() < best.schedule.makespan()
+                        || result.schedule.makespan() == best.schedule.makespan()
+                            && result.cause == Result.ExitCause.ProvedOptimal)
+                {
+                    best = result;
+                }
+            }
+
+            Result.ExitCause cause = best.cause == Result.ExitCause.ProvedOptimal
+                    || best.schedule.makespan() <= lowerBound ? Result.ExitCause.ProvedOptimal : Result.ExitCause.Timeout;
+            return new Result(instance, best.schedule, cause, context.stats);
+        }
+        catch (InterruptedException | ExecutionException e)
+        {
+            throw new RuntimeException(e);
+        }
+        finally
+        {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -10,7 +10,12 @@ public class RandomSolver implements Solver {
 
     @Override
     public Result solve(Instance instance, long deadline) {
-        Random generator = new Random(0);
+        return solve(instance, new SolverContext(deadline));
+    }
+
+    @Override
+    public Result solve(Instance instance, SolverContext context) {
+        Random generator = new Random(context.seed);
 
         JobNumbers sol = new JobNumbers(instance);
 
@@ -20,16 +25,20 @@ public class RandomSolver implements Solver {
             }
         }
         Schedule best = sol.toSchedule();
-        while(deadline - System.currentTimeMillis() > 1) {
+        long iteration = 0;
+        while(context.deadline - System.currentTimeMillis() > 1 && !context.isStopped()) {
+            iteration++;
             shuffleArray(sol.jobs, generator);
             Schedule s = sol.toSchedule();
             if(s.makespan() < best.makespan()) {
                 best = s;
+                context.improved(best.makespan(), iteration);
             }
         }
+        context.stats.addIterations(iteration);
+        context.stats.addEvaluations(iteration);
 
-
-        return new Result(instance, best, Result.ExitCause.Timeout);
+        return new Result(instance, best, Result.ExitCause.Timeout, context.stats);
     }
 
     /** Simple Fisher–Yates array shuffling */
@@ -0,0 +1,169 @@
+package jobshop.solvers;
+
+import jobshop.Instance;
+import jobshop.Result;
+import jobshop.Solver;
+import jobshop.SolverContext;
+import jobshop.encodings.DisjunctiveGraph;
+
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+/** Shifting bottleneck procedure (Adams, Balas and Zawack).
+ *
+ * Machines are sequenced one at a time. At each step, the one machine problem of every unsequenced machine is built
+ * from the heads and tails of its tasks in the graph of the machines sequenced so far, and solved with Carlier's
+ * algorithm. These subproblems are independent and solved in parallel. The machine with the largest one machine
+ * makespan (the bottleneck) is sequenced accordingly, then every previously sequenced machine is re-optimized in
+ * turn, given the sequences of all the others.
+ *
+ * The procedure is deterministic and typically gives much better start solutions than the greedy heuristics.
+ */
+public class ShiftingBottleneckSolver implements Solver {
+
+    /** Number of nodes after which Carlier's branch and bound keeps its best sequence. */
+    static final long MAX_NODES = 1000;
+
+    /** Number of passes of re-optimization after each new bottleneck. */
+    static final int REOPTIMIZATION_PASSES = 2;
+
+    @Override
+    public Result solve(Instance instance, long deadline)
+    {
+        return solve(instance, new SolverContext(deadline));
+    }
+
+    @Override
+    public Result solve(Instance instance, SolverContext context)
+    {
+        int numMachines = instance.numMachines;
+        DisjunctiveGraph graph = new DisjunctiveGraph(instance);
+
+        // opsOnMachine[m][j]: the task of job j executed on machine m
+        int[][] opsOnMachine = new int[numMachines][instance.numJobs];
+        for(int m = 0 ; m < numMachines ; m++)
+        {
+            for(int j = 0 ; j < instance.numJobs ; j++)
+            {
+                opsOnMachine[m][j] = graph.operation(j, instance.task_with_machine(j, m));
+            }
+            graph.setSequence(m, opsOnMachine[m]);
+            graph.unsequence(m);
+        }
+        graph.evaluate();
+
+        // machines in the order in which they were sequenced
+        int[] sequencedMachines = new int[numMachines];
+        for(int step = 0 ; step < numMachines ; step++)
+        {
+            // solve the one machine problems of all unsequenced machines in parallel
+            Carlier[] subproblems = new Carlier[numMachines];
+            IntStream.range(0, numMachines)
+                    .filter(m -> !graph.isSequenced(m))
+                    .parallel()
+                    .forEach(m -> {
+                        subproblems[m] = subproblem(graph, opsOnMachine[m]);
+                        subproblems[m].solve();
+                    });
+
+            int bottleneck = -1;
+            for(int m = 0 ; m < numMachines ; m++)
+            {
+                if(subproblems[m] != null
+                        && (bottleneck < 0 || subproblems[m].upperBound > subproblems[bottleneck].upperBound))
+                {
+                    bottleneck = m;
+                }
+            }
+            insert(graph, bottleneck, opsOnMachine[bottleneck], subproblems[bottleneck]);
+            sequencedMachines[step] = bottleneck;
+
+            for(int pass = 0 ; pass < REOPTIMIZATION_PASSES && !context.shouldStop() ; pass++)
+            {
+                for(int i = 0 ; i < step ; i++)
+                {
+                    reoptimize(graph, sequencedMachines[i], opsOnMachine[sequencedMachines[i]]);
+                }
+            }
+        }
+        context.improved(graph.makespan(), numMachines);
+        context.stats.addIterations(numMachines);
+        return new Result(instance, graph.toSchedule(), Result.ExitCause.Blocked, context.stats);
+    }
+
+    /** One machine problem of the tasks of a machine, with their heads and tails in the current graph. */
+    static Carlier subproblem(DisjunctiveGraph graph, int[] ops)
+    {
+        int n = ops.length;
+        int[] r = new int[n];
+        int[] p = new int[n];
+        int[] q = new int[n];
+        for(int j = 0 ; j < n ; j++)
+        {
+            r[j] = graph.head[ops[j]];
+            p[j] = graph.duration(ops[j]);
+            q[j] = graph.tail[ops[j]];
+        }
+        return new Carlier(n, r, p, q, MAX_NODES);
+    }
+
+    /** Sequences the machine according to the solution of its one machine problem and re-evaluates the graph.
+     *
+     * Heads and tails ignore the delayed precedences between tasks of the machine, so the sequence can in rare cases
+     * create a cycle. The tasks are then sequenced by non-decreasing heads, which follows every path of the graph. */
+    static void insert(DisjunctiveGraph graph, int machine, int[] ops, Carlier subproblem)
+    {
+        int[] heads = new int[ops.length];
+        for(int j = 0 ; j < ops.length ; j++)
+        {
+            heads[j] = graph.head[ops[j]];
+        }
+        graph.setSequence(machine, sequence(ops, subproblem.sequence));
+        if(!graph.evaluate())
+        {
+            Integer[] byHead = new Integer[ops.length];
+            for(int j = 0 ; j < ops.length ; j++)
+            {
+                byHead[j] = j;
+            }
+            Arrays.sort(byHead, (a, b) -> Integer.compare(heads[a], heads[b]));
+            int[] order = new int[ops.length];
+            for(int j = 0 ; j < ops.length ; j++)
+            {
+                order[j] = byHead[j];
+            }
+            graph.setSequence(machine, sequence(ops, order));
+            graph.evaluate();
+        }
+    }
+
+    /** Removes the sequence of a machine and sequences it again given all other machines. The new sequence is only
+     * kept if it does not increase the makespan of the graph. */
+    static void reoptimize(DisjunctiveGraph graph, int machine, int[] ops)
+    {
+        int makespan = graph.makespan();
+        int[] previous = graph.sequence[machine].clone();
+        graph.unsequence(machine);
+        graph.evaluate();
+
+        Carlier subproblem = subproblem(graph, ops);
+        subproblem.solve();
+        graph.setSequence(machine, sequence(ops, subproblem.sequence));
+        if(!graph.evaluate() || graph.makespan() > makespan)
+        {
+            graph.setSequence(machine, previous);
+            graph.evaluate();
+        }
+    }
+
+    /** Operations of a machine in the order given by the indices of a one machine solution. */
+    static int[] sequence(int[] ops, int[] order)
+    {
+        int[] seq = new int[ops.length];
+        for(int i = 0 ; i < ops.length ; i++)
+        {
+            seq[i] = ops[order[i]];
+        }
+        return seq;
+    }
+}
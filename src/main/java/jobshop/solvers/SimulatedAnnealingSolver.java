@@ -0,0 +1,158 @@
+package jobshop.solvers;
+
+import jobshop.Instance;
+import jobshop.Result;
+import jobshop.Schedule;
+import jobshop.Solver;
+import jobshop.SolverContext;
+import jobshop.encodings.DisjunctiveGraph;
+import jobshop.encodings.ResourceOrder;
+
+import java.util.Random;
+
+/** Simulated annealing on the resource order representation.
+ *
+ * Moves are the swaps of two adjacent tasks inside a critical block (van Laarhoven et al.), a neighborhood in which
+ * an optimal solution can always be reached. A move is evaluated in constant time from the heads and tails of the
+ * current solution, and the solution is only re-evaluated when the move is accepted.
+ *
+ * The temperature decreases geometrically with the elapsed fraction of the time budget, from an initial temperature
+ * that accepts an average degrading move of the start solution with probability 1/2, to a final temperature that
+ * only accepts a degradation of 1 with probability 1/100. When the best solution has not improved for a tenth of
+ * the budget, the search restarts from the best solution.
+ */
+public class SimulatedAnnealingSolver implements Solver {
+
+    /** Number of iterations between two updates of the temperature (and checks of the deadline). */
+    static final int CHECK_PERIOD = 1024;
+
+    /** Probability to accept a degradation of 1 at the end of the search */
+    static final double FINAL_ACCEPTANCE = 0.01;
+
+    @Override
+    public Result solve(Instance instance, long deadline)
+    {
+        return solve(instance, new SolverContext(deadline));
+    }
+
+    @Override
+    public Result solve(Instance instance, SolverContext context)
+    {
+        long deadline = context.deadline;
+        long startMs = System.currentTimeMillis();
+        long movesEvaluated = 0;
+        long movesAccepted = 0;
+
+        Schedule startSolution = new GreedyLRPTEST().solve(instance, deadline).schedule;
+        DisjunctiveGraph current = new DisjunctiveGraph(new ResourceOrder(startSolution));
+        DisjunctiveGraph best = new DisjunctiveGraph(instance);
+        best.copyFrom(current);
+        context.improved(best.makespan(), 0);
+
+        int numOps = instance.numJobs * instance.numTasks;
+        int[] moveMachine = new int[numOps];
+        int[] movePos = new int[numOps];
+        int numMoves = collectMoves(current, moveMachine, movePos);
+
+        Random generator = new Random(context.seed);
+        Result.ExitCause cause = Result.ExitCause.Timeout;
+        if(numMoves == 0)
+        {
+            cause = Result.ExitCause.ProvedOptimal;
+        }
+        else
+        {
+            double initialTemperature = initialTemperature(current, moveMachine, movePos, numMoves);
+            double finalTemperature = Math.min(initialTemperature, -1 / Math.log(FINAL_ACCEPTANCE));
+            double temperature = initialTemperature;
+            long budget = Math.max(1, deadline - startMs);
+            long lastImprovement = startMs;
+
+            long iter;
+            for(iter = 0 ; ; iter++)
+            {
+                if(iter % CHECK_PERIOD == 0)
+                {
+                    long now = System.currentTimeMillis();
+                    if(now >= deadline || context.isStopped())
+                    {
+                        break;
+                    }
+                    double elapsed = (double) (now - startMs) / budget;
+                    temperature = initialTemperature * Math.pow(finalTemperature / initialTemperature, elapsed);
+                    if(now - lastImprovement > budget / 10)
+                    {
+                        // stagnation: go back to the best solution found so far
+                        current.copyFrom(best);
+                        numMoves = collectMoves(current, moveMachine, movePos);
+                        lastImprovement = now;
+                        context.stats.addRestarts(1);
+                    }
+                }
+
+                int move = generator.nextInt(numMoves);
+                int delta = current.swapEstimate(moveMachine[move], movePos[move]) - current.makespan();
+                movesEvaluated++;
+                if(delta <= 0 || generator.nextDouble() < Math.exp(-delta / temperature))
+                {
+                    movesAccepted++;
+                    current.swap(moveMachine[move], movePos[move]);
+                    current.evaluate();
+                    numMoves = collectMoves(current, moveMachine, movePos);
+                    if(current.makespan() < best.makespan())
+                    {
+                        best.copyFrom(current);
+                        context.improved(best.makespan(), iter);
+                        lastImprovement = System.currentTimeMillis();
+                    }
+                    if(numMoves == 0)
+                    {
+                        // the critical path is a single job: no schedule can be shorter
+                        cause = Result.ExitCause.ProvedOptimal;
+                        break;
+                    }
+                }
+            }
+            context.stats.addIterations(iter);
+            context.stats.addNeighborsGenerated(movesEvaluated);
+            context.stats.addAccepted(movesAccepted);
+            // every move is estimated, and the accepted ones are evaluated
+            context.stats.addEvaluations(movesEvaluated + movesAccepted);
+        }
+        return new Result(instance, best.toSchedule(), cause, context.stats);
+    }
+
+    /** Fills the arrays with all swaps of adjacent tasks in the critical blocks of the graph, identified by a machine
+     * and the position of the first swapped task. Returns the number of swaps. */
+    static int collectMoves(DisjunctiveGraph graph, int[] moveMachine, int[] movePos)
+    {
+        int numMoves = 0;
+        for(int b = 0 ; b < graph.numBlocks ; b++)
+        {
+            for(int pos = graph.blockFirst[b] ; pos < graph.blockLast[b] ; pos++)
+            {
+                moveMachine[numMoves] = graph.blockMachine[b];
+                movePos[numMoves++] = pos;
+            }
+        }
+        return numMoves;
+    }
+
+    /** Temperature at which the average degrading move of the given solution is accepted with probability 1/2. */
+    static double initialTemperature(DisjunctiveGraph graph, int[] moveMachine, int[] movePos, int numMoves)
+    {
+        long sum = 0;
+        int count = 0;
+        for(int move = 0 ; move < numMoves ; move++)
+        {
+            int delta = graph.swapEstimate(moveMachine[move], movePos[move]) - graph.makespan();
+            if(delta > 0)
+            {
+                sum += delta;
+                count++;
+            }
+        }
+        double averageDegradation = count == 0 ? 1 : (double) sum / count;
+        return averageDegradation / Math.log(2);
+    }
+}
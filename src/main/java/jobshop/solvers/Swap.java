@@ -0,0 +1,40 @@
+package jobshop.solvers;
+
+import jobshop.encodings.ResourceOrder;
+
+/**
+ * Represents a swap of two tasks on the same machine in a ResourceOrder encoding: the task at index t1 is moved to
+ * index t2, the tasks in between being shifted by one index (a plain swap when the two indices are adjacent).
+ *
+ * Consider the solution in ResourceOrder representation
+ * machine 0 : (0,1) (1,2) (2,2)
+ * machine 1 : (0,2) (2,1) (1,1)
+ * machine 2 : ...
+ *
+ * The swap with : machine = 1, t1= 0 and t2 = 1
+ * Represent inversion of the two tasks : (0,2) and (2,1)
+ * Applying this swap on the above resource order should result in the following one :
+ * machine 0 : (0,1) (1,2) (2,2)
+ * machine 1 : (2,1) (0,2) (1,1)
+ * machine 2 : ...
+ */
+class Swap {
+    // machine on which to perform the swap
+    final int machine;
+    // index of one task to be swapped
+    final int t1;
+    // index of the other task to be swapped
+    final int t2;
+
+    Swap(int machine, int t1, int t2) {
+        this.machine = machine;
+        this.t1 = t1;
+        this.t2 = t2;
+    }
+
+    /** Apply this swap on the given resource order, transforming it into a new solution. */
+    public void applyOn(ResourceOrder order)
+    {
+        order.move(machine, t1, t2);
+    }
+}
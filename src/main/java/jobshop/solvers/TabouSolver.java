@@ -4,66 +4,35 @@ import jobshop.Instance;
 import jobshop.Result;
 import jobshop.Schedule;
 import jobshop.Solver;
+import jobshop.SolverContext;
+import jobshop.encodings.DisjunctiveGraph;
+import jobshop.encodings.MakespanCache;
 import jobshop.encodings.ResourceOrder;
-import jobshop.encodings.Task;
 
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Random;
 
 public class TabouSolver implements Solver{
 
-    static class Block {
-        /** machine on which the block is identified */
-        final int machine;
-        /** index of the first task of the block */
-        final int firstTask;
-        /** index of the last task of the block */
-        final int lastTask;
+    /** Number of makespans kept in the cache of a run. */
+    static final int CACHE_SIZE = 1 << 16;
 
-        Block(int machine, int firstTask, int lastTask) {
-            this.machine = machine;
-            this.firstTask = firstTask;
-            this.lastTask = lastTask;
-        }
-    }
+    /** Number of past solutions of the trajectory in which cycles are looked for. */
+    static final int CYCLE_WINDOW = 64;
 
-    /**
-     * Represents a swap of two tasks on the same machine in a ResourceOrder encoding.
-     *
-     * Consider the solution in ResourceOrder representation
-     * machine 0 : (0,1) (1,2) (2,2)
-     * machine 1 : (0,2) (2,1) (1,1)
-     * machine 2 : ...
-     *
-     * The swam with : machine = 1, t1= 0 and t2 = 1
-     * Represent inversion of the two tasks : (0,2) and (2,1)
-     * Applying this swap on the above resource order should result in the following one :
-     * machine 0 : (0,1) (1,2) (2,2)
-     * machine 1 : (2,1) (0,2) (1,1)
-     * machine 2 : ...
-     */
-    static class Swap {
-        // machine on which to perform the swap
-        final int machine;
-        // index of one task to be swapped
-        final int t1;
-        // index of the other task to be swapped
-        final int t2;
+    private final Neighborhood neighborhood;
 
-        Swap(int machine, int t1, int t2) {
-            this.machine = machine;
-            this.t1 = t1;
-            this.t2 = t2;
-        }
+    /** A taboo search in the N5 neighborhood. */
+    public TabouSolver()
+    {
+        this(Neighborhood.N5);
+    }
 
-        /** Apply this swap on the given resource order, transforming it into a new solution. */
-        public void applyOn(ResourceOrder order)
-        {
-            Task aux = order.tasksByMachine[machine][t1];
-            order.tasksByMachine[machine][t1] = order.tasksByMachine[machine][t2];
-            order.tasksByMachine[machine][t2] = aux;
-        }
+    public TabouSolver(Neighborhood neighborhood)
+    {
+        this.neighborhood = neighborhood;
     }
 
     static class orderSwap
@@ -87,10 +56,6 @@ public class TabouSolver implements Solver{
         }
     }
 
-    List<orderSwap> orderSwaps = new ArrayList<orderSwap>();
-
-    List<tabouSwap> tabous;
-
     protected void printList(String arg, List<ResourceOrder> tasks)
     {
         for(ResourceOrder order : tasks)
@@ -101,164 +66,163 @@ public class TabouSolver implements Solver{
 
     public Result solve(Instance instance, long deadline)
     {
-        int maxIter = 500;
+        return solve(instance, new SolverContext(deadline));
+    }
+
+    @Override
+    public Result solve(Instance instance, SolverContext context)
+    {
         int k = 0;
         int dureeTabou = 10;
-        tabous = new ArrayList<tabouSwap>();
+        // the tabu list and the swaps of the neighborhood are local to the call, so that a solver can solve several
+        // instances concurrently
+        List<tabouSwap> tabous = new ArrayList<tabouSwap>();
+        List<orderSwap> orderSwaps;
 
-        Schedule startSolution = new GreedyLRPTEST().solve(instance, deadline).schedule;
+        Schedule startSolution = context.warmStart != null ? context.warmStart
+                : new GreedyLRPTEST().solve(instance, context.deadline).schedule;
 
         ResourceOrder currentSolution = new ResourceOrder(startSolution);
-        List<Block> blocksOfCriticalPath;
         List<ResourceOrder> neighborhood;
         ResourceOrder bestNeighbor = currentSolution;
+        // the trajectory may leave the best solution: keep it, so that a warm start never gets worse
+        Schedule bestSolution = startSolution;
         Swap swap;
-        long startTime = System.nanoTime();
+        MakespanCache cache = new MakespanCache(CACHE_SIZE);
+        // critical blocks of the current solution, and its heads and tails for the feasibility of insertions
+        DisjunctiveGraph graph = new DisjunctiveGraph(instance);
+        // hashes of the last solutions of the trajectory
+        long[] recent = new long[CYCLE_WINDOW];
+        Random generator = new Random(context.seed);
+        long neighbors = 0;
+        // the search runs until the deadline, unless the critical path has no block
+        Result.ExitCause cause = Result.ExitCause.Timeout;
         do
         {
             currentSolution = bestNeighbor;
            // System.out.println(currentSolution);
-            blocksOfCriticalPath = blocksOfCriticalPath(currentSolution);
 
             orderSwaps = new ArrayList<orderSwap>();
-            neighborhood = generateNeighborhood(currentSolution, blocksOfCriticalPath, k);
+            neighborhood = generateNeighborhood(currentSolution, k, tabous, orderSwaps, graph);
+            neighbors += neighborhood.size();
            // for(orderSwap os : orderSwaps)
             //{
              //   System.out.println("solution makespan "+os.solution.toSchedule().makespan()+", swap machine " + os.swap.machine+" "+os.swap.t1+" "+os.swap.t2);
             //}
             if(neighborhood.size() == 0)
             {
+                cause = Result.ExitCause.Blocked;
                 break;
             }
-            bestNeighbor = getMinMakeSpan(neighborhood);
+            bestNeighbor = getMinMakeSpan(neighborhood, cache);
+            if(contains(recent, bestNeighbor.hash()))
+            {
+                // the trajectory loops despite the tabu list: escape with a random neighbor
+                bestNeighbor = neighborhood.get(generator.nextInt(neighborhood.size()));
+                context.stats.addRestarts(1);
+            }
+            recent[k % CYCLE_WINDOW] = bestNeighbor.hash();
+            int makespan = cache.makespan(bestNeighbor);
+            if(makespan < bestSolution.makespan())
+            {
+                bestSolution = bestNeighbor.toSchedule();
+            }
+            context.improved(makespan, k);
            // System.out.println("Salut"+bestNeighbor);
-            swap = findSwapByResourceOrder(bestNeighbor);
+            swap = findSwapByResourceOrder(bestNeighbor, orderSwaps);
            // System.out.println("this swap is now tabou machine " + swap.machine+" "+swap.t1+" "+swap.t2);
-            tabous.add(new tabouSwap(swap, k+dureeTabou));
+            addTabou(swap, k+dureeTabou, k, tabous);
            // for(tabouSwap ts : tabous)
             //{
               //  System.out.println("Swap machine " + ts.swap.machine+" "+ts.swap.t1+" "+ts.swap.t2+" available at "+ts.kOK);
             //}
             k++;
         }
-        while(System.nanoTime() - startTime < 2000000000);
-        return new Result(instance, currentSolution.toSchedule(), Result.ExitCause.Blocked);
+        while(!context.shouldStop());
+        context.stats.addIterations(k);
+        context.stats.addNeighborsGenerated(neighbors);
+        context.stats.addEvaluations(cache.misses());
+        return new Result(instance, bestSolution, cause, context.stats);
     }
 
-    ResourceOrder getMinMakeSpan(List<ResourceOrder> neighborhood)
+    /** Neighbor with the smallest makespan, each makespan being computed at most once (and not at all if it is in
+     * the cache). */
+    ResourceOrder getMinMakeSpan(List<ResourceOrder> neighborhood, MakespanCache cache)
     {
         int minSpan = Integer.MAX_VALUE;
         ResourceOrder bestOrder = null;
         for(ResourceOrder order : neighborhood)
         {
-            if (order.toSchedule().makespan() < minSpan)
+            int makespan = cache.makespan(order);
+            if (makespan < minSpan)
             {
-                minSpan = order.toSchedule().makespan();
+                minSpan = makespan;
                 bestOrder = order;
             }
         }
         return bestOrder;
     }
 
-    int getTaskIndex(ResourceOrder order, int machine, Task task)
+    /** True if the hash is one of the given ones. */
+    static boolean contains(long[] hashes, long hash)
     {
-        for(int i = 0 ; i < order.tasksByMachine[machine].length; i++)
+        for(long h : hashes)
         {
-            if (order.tasksByMachine[machine][i].equals(task))
+            if(h == hash)
             {
-                return i;
+                return true;
             }
         }
-        return -1;
+        return false;
     }
 
-    List<Block> blocksOfCriticalPath(ResourceOrder order)
-    {
-        int currentMachine;
-        int currentMachineCount = 1;
-        int currentFirstTaskIndex;
-
-        Task currentFirstTask;
-
-        Schedule sched = order.toSchedule();
-
-        List<Block> res = new ArrayList<Block>();
-        List<Task> criticalPath = sched.criticalPath();
-       // for(Task task : criticalPath)
-        //{
-          //  System.out.println(task+" "+order.instance.machine(task));
-       // }
-        currentFirstTask = criticalPath.get(0);
-        currentMachine = order.instance.machine(criticalPath.get(0));
-        currentFirstTaskIndex = getTaskIndex(order, currentMachine, currentFirstTask);
-
-        for(int i = 1; i<criticalPath.size(); i++)
-        {
-            if (order.instance.machine(criticalPath.get(i)) == currentMachine)
-            {
-                currentMachineCount++;
-            }
-            if(order.instance.machine(criticalPath.get(i)) != currentMachine)
-            {
-                if (currentMachineCount > 1) {
-                    //System.out.println("adding block machine "+currentMachine+" "+currentFirstTaskIndex+" "+getTaskIndex(order, currentMachine, criticalPath.get(i - 1)));
-                    res.add(new Block(currentMachine, currentFirstTaskIndex, getTaskIndex(order, currentMachine, criticalPath.get(i - 1))));
-                }
-                currentFirstTask = criticalPath.get(i);
-                currentMachine = order.instance.machine(currentFirstTask);
-                currentFirstTaskIndex = getTaskIndex(order, currentMachine, currentFirstTask);
-                currentMachineCount = 1;
-            }
-            if(i == criticalPath.size() - 1)
-            {
-                if (currentMachineCount > 1) {
-                    //System.out.println("adding block machine "+currentMachine+" "+currentFirstTaskIndex+" "+getTaskIndex(order, currentMachine, criticalPath.get(i - 1)));
-                    res.add(new Block(currentMachine, currentFirstTaskIndex, getTaskIndex(order, currentMachine, criticalPath.get(i))));
-                }
-            }
-        }
-        return res;
-    }
-
-    /** For a given block, return the possible swaps for the Nowicki and Smutnicki neighborhood */
-    List<Swap> neighbors(Block block)
-    {
-        List<Swap> swaps = new ArrayList<Swap>();
-        if (block.lastTask - block.firstTask + 1 == 2)
-        {
-            swaps.add(new Swap(block.machine, block.firstTask, block.lastTask));
-        }
-        else
-        {
-            swaps.add(new Swap(block.machine, block.firstTask, block.firstTask + 1));
-            swaps.add(new Swap(block.machine, block.lastTask, block.lastTask - 1));
-        }
-        return swaps;
-    }
-
-    List<ResourceOrder> generateNeighborhood(ResourceOrder order,List<Block> blocksOfCriticalPath, int iter)
+    /** Non-tabu neighbors of the order at iteration `iter`, or if all of them are tabu, the one whose swap is the
+     * first to expire (Nowicki and Smutnicki). The swap giving each neighbor is added to `orderSwaps`.
+     * `graph` is a scratch graph of the instance (see Neighborhood.moves()). */
+    List<ResourceOrder> generateNeighborhood(ResourceOrder order, int iter, List<tabouSwap> tabous,
+                                             List<orderSwap> orderSwaps, DisjunctiveGraph graph)
     {
         List<ResourceOrder> neighborhood = new ArrayList<ResourceOrder>();
-        List<Swap> allSwaps = new ArrayList<Swap>();
-        for(Block block : blocksOfCriticalPath)
-        {
-            allSwaps.addAll(neighbors(block));
-        }
-        for(Swap swap : allSwaps)
+        Swap oldestTabou = null;
+        int oldestIterOK = Integer.MAX_VALUE;
+        for(Swap swap : this.neighborhood.moves(order, graph))
         {
            // System.out.println("On est au swap machine " + swap.machine+" "+swap.t1+" "+swap.t2+" available at "+getIterOKBySwap(swap));
-            if (getIterOKBySwap(swap) <= iter || getIterOKBySwap(swap) == -1)
+            int iterOK = getIterOKBySwap(swap, tabous);
+            if (iterOK <= iter || iterOK == -1)
             {
                 ResourceOrder newNeighbor = order.copy();
                 swap.applyOn(newNeighbor);
                 neighborhood.add(newNeighbor);
                 orderSwaps.add(new orderSwap(newNeighbor, swap));
             }
+            else if(iterOK < oldestIterOK)
+            {
+                oldestTabou = swap;
+                oldestIterOK = iterOK;
+            }
+        }
+        if(neighborhood.isEmpty() && oldestTabou != null)
+        {
+            ResourceOrder newNeighbor = order.copy();
+            oldestTabou.applyOn(newNeighbor);
+            neighborhood.add(newNeighbor);
+            orderSwaps.add(new orderSwap(newNeighbor, oldestTabou));
         }
         return neighborhood;
     }
 
-    int getIterOKBySwap(Swap swap)
+    /** Makes the swap tabu until iteration `kOK`. The entries that are no longer tabu at iteration `iter`, and any
+     * older entry of the same swap, are removed first: the list keeps one entry per swap, whose expiry is the last
+     * one given, and its length stays bounded by the tabu tenure however long the search runs. */
+    static void addTabou(Swap swap, int kOK, int iter, List<tabouSwap> tabous)
+    {
+        tabous.removeIf(ts -> ts.kOK <= iter
+                || (ts.swap.machine == swap.machine && ts.swap.t1 == swap.t1 && ts.swap.t2 == swap.t2));
+        tabous.add(new tabouSwap(swap, kOK));
+    }
+
+    int getIterOKBySwap(Swap swap, List<tabouSwap> tabous)
     {
         for(tabouSwap ts : tabous)
         {
@@ -270,7 +234,7 @@ public class TabouSolver implements Solver{
         return -1;
     }
 
-    Swap findSwapByResourceOrder(ResourceOrder order)
+    Swap findSwapByResourceOrder(ResourceOrder order, List<orderSwap> orderSwaps)
     {
         for(orderSwap ords : orderSwaps)
         {
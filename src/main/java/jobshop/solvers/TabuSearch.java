@@ -0,0 +1,185 @@
+package jobshop.solvers;
+
+import jobshop.Instance;
+import jobshop.SolverContext;
+import jobshop.encodings.DisjunctiveGraph;
+import jobshop.encodings.ResourceOrder;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/** One tabu search trajectory on the Nowicki and Smutnicki neighborhood, with its own tabu memory and random
+ * generator so that several trajectories can run concurrently.
+ *
+ * Neighbors are evaluated with the constant time estimate of DisjunctiveGraph. After swapping the tasks of jobs a
+ * and b on machine m, putting back the task of a before the one of b on m is tabu for `tenure` iterations, unless it
+ * leads to a new best solution. Ties between the best neighbors are broken at random.
+ */
+class TabuSearch {
+
+    static final int DEFAULT_TENURE = 10;
+
+    final Instance instance;
+    final Random generator;
+    final int tenure;
+
+    /** current solution of the trajectory */
+    final DisjunctiveGraph current;
+    /** best solution found since the last call to reset() */
+    final DisjunctiveGraph best;
+
+    /** tabuUntil[(m * numJobs + a) * numJobs + b]: iteration until which the task of job a cannot be put back
+     * before the one of job b on machine m */
+    private final int[] tabuUntil;
+
+    /** candidate moves: machine and position of the first swapped task */
+    private final int[] moveMachine;
+    private final int[] movePos;
+
+    /** number of iterations performed since the last call to reset() */
+    int iteration;
+
+    /** true if the current solution was proved optimal (its critical path does not contain any block) */
+    boolean optimal;
+
+    TabuSearch(Instance instance, long seed)
+    {
+        this(instance, seed, DEFAULT_TENURE);
+    }
+
+    TabuSearch(Instance instance, long seed, int tenure)
+    {
+        this.instance = instance;
+        this.generator = new Random(seed);
+        this.tenure = tenure;
+        this.current = new DisjunctiveGraph(instance);
+        this.best = new DisjunctiveGraph(instance);
+        this.tabuUntil = new int[instance.numMachines * instance.numJobs * instance.numJobs];
+        int numOps = instance.numJobs * instance.numTasks;
+        this.moveMachine = new int[2 * numOps];
+        this.movePos = new int[2 * numOps];
+    }
+
+    /** Restarts the trajectory from the given solution, with an empty tabu memory. */
+    void reset(ResourceOrder start)
+    {
+        current.load(start);
+        current.evaluate();
+        restart();
+    }
+
+    /** Restarts the trajectory from the given solution, with an empty tabu memory. */
+    void reset(DisjunctiveGraph start)
+    {
+        current.copyFrom(start);
+        restart();
+    }
+
+    private void restart()
+    {
+        best.copyFrom(current);
+        Arrays.fill(tabuUntil, 0);
+        iteration = 0;
+        optimal = current.numBlocks == 0;
+    }
+
+    /** Performs at most `maxIterations` iterations, stopping early when the context should stop or when the current
+     * solution is proved optimal. Each new best solution is reported to the context, as well as the counters of the
+     * iterations. Returns the number of iterations performed. */
+    int run(int maxIterations, SolverContext context)
+    {
+        int done = 0;
+        long neighbors = 0;
+        while(done < maxIterations && !optimal && !context.shouldStop())
+        {
+            int bestMakespan = best.makespan();
+            neighbors += step();
+            done++;
+            if(best.makespan() < bestMakespan)
+            {
+                context.improved(best.makespan(), iteration);
+            }
+        }
+        context.stats.addIterations(done);
+        context.stats.addNeighborsGenerated(neighbors);
+        // every neighbor is estimated, and the chosen one is evaluated
+        context.stats.addEvaluations(neighbors + done);
+        return done;
+    }
+
+    /** Moves to the best allowed neighbor of the current solution. Returns the number of neighbors. */
+    int step()
+    {
+        iteration++;
+        int numMoves = collectMoves();
+        if(numMoves == 0)
+        {
+            optimal = true;
+            return 0;
+        }
+
+        int numJobs = instance.numJobs;
+        int chosen = -1;
+        int chosenMakespan = Integer.MAX_VALUE;
+        int ties = 0;
+        for(int move = 0 ; move < numMoves ; move++)
+        {
+            int machine = moveMachine[move];
+            int pos = movePos[move];
+            int makespan = current.swapEstimate(machine, pos);
+            // the move puts the task at pos+1 before the one at pos
+            int jobBefore = current.jobOf(current.sequence[machine][pos + 1]);
+            int jobAfter = current.jobOf(current.sequence[machine][pos]);
+            boolean tabu = tabuUntil[(machine * numJobs + jobBefore) * numJobs + jobAfter] > iteration;
+            if(tabu && makespan >= best.makespan())
+            {
+                continue;
+            }
+            if(makespan < chosenMakespan)
+            {
+                chosen = move;
+                chosenMakespan = makespan;
+                ties = 1;
+            }
+            else if(makespan == chosenMakespan && generator.nextInt(++ties) == 0)
+            {
+                chosen = move;
+            }
+        }
+        if(chosen < 0)
+        {
+            // every move is tabu: pick one at random
+            chosen = generator.nextInt(numMoves);
+        }
+
+        int machine = moveMachine[chosen];
+        int pos = movePos[chosen];
+        int jobBefore = current.jobOf(current.sequence[machine][pos]);
+        int jobAfter = current.jobOf(current.sequence[machine][pos + 1]);
+        tabuUntil[(machine * numJobs + jobBefore) * numJobs + jobAfter] = iteration + tenure;
+        current.swap(machine, pos);
+        current.evaluate();
+        if(current.makespan() < best.makespan())
+        {
+            best.copyFrom(current);
+        }
+        return numMoves;
+    }
+
+    /** Swaps of the first two and last two tasks of each critical block, as in Neighborhood.N5 */
+    private int collectMoves()
+    {
+        int numMoves = 0;
+        for(int b = 0 ; b < current.numBlocks ; b++)
+        {
+            moveMachine[numMoves] = current.blockMachine[b];
+            movePos[numMoves++] = current.blockFirst[b];
+            if(current.blockLast[b] - current.blockFirst[b] + 1 > 2)
+            {
+                moveMachine[numMoves] = current.blockMachine[b];
+                movePos[numMoves++] = current.blockLast[b] - 1;
+            }
+        }
+        return numMoves;
+    }
+}
@@ -3,12 +3,17 @@ package jobshop.encodings;
 import jobshop.Instance;
 import jobshop.Result;
 import jobshop.Schedule;
+import jobshop.SolutionStore;
 import jobshop.Solver;
 import jobshop.solvers.BasicSolver;
+import jobshop.solvers.GreedyLRPTEST;
 import org.junit.Test;
 
 import java.io.IOException;
+import java.nio.file.Files;
 import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Random;
 
 public class EncodingTests {
 
@@ -72,4 +77,163 @@ public class EncodingTests {
         assert result.schedule.makespan() == sched.makespan(); // should have the same makespan
     }
 
+    @Test
+    public void testDisjunctiveGraph() throws IOException {
+        Instance instance = Instance.fromFile(Paths.get("instances/ft10"));
+        ResourceOrder order = new ResourceOrder(new GreedyLRPTEST().solve(instance, System.currentTimeMillis() + 10).schedule);
+
+        DisjunctiveGraph graph = new DisjunctiveGraph(order);
+        assert graph.toSchedule().isValid();
+        assert graph.makespan() == order.toSchedule().makespan();
+
+        // the estimate of a critical swap is the length of a path in the new graph: never above the actual makespan
+        for(int b = 0 ; b < graph.numBlocks ; b++) {
+            int machine = graph.blockMachine[b];
+            int pos = graph.blockFirst[b];
+            int estimate = graph.swapEstimate(machine, pos);
+
+            DisjunctiveGraph neighbor = new DisjunctiveGraph(instance);
+            neighbor.copyFrom(graph);
+            neighbor.swap(machine, pos);
+            assert neighbor.evaluate();
+            assert estimate <= neighbor.makespan();
+            assert neighbor.makespan() == neighbor.toResourceOrder().toSchedule().makespan();
+        }
+
+        // insertions accepted by canMove() keep the order acyclic
+        for(int b = 0 ; b < graph.numBlocks ; b++) {
+            int machine = graph.blockMachine[b];
+            for(int i = graph.blockFirst[b] ; i <= graph.blockLast[b] ; i++) {
+                for(int to : new int[] {graph.blockFirst[b], graph.blockLast[b]}) {
+                    if(i != to && graph.canMove(machine, i, to)) {
+                        ResourceOrder moved = order.copy();
+                        moved.move(machine, i, to);
+                        assert moved.toSchedule() != null && moved.toSchedule().isValid();
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testConversions() throws IOException {
+        Instance instance = Instance.fromFile(Paths.get("instances/ft10"));
+        Random random = new Random(0);
+        for(int run = 0 ; run < 10 ; run++) {
+            // a random sequence: each job appears numTasks times
+            JobNumbers enc = new JobNumbers(instance);
+            for(int j = 0 ; j < instance.numJobs ; j++) {
+                for(int t = 0 ; t < instance.numTasks ; t++) {
+                    enc.jobs[enc.nextToSet++] = j;
+                }
+            }
+            for(int i = enc.jobs.length - 1 ; i > 0 ; i--) {
+                int k = random.nextInt(i + 1);
+                int tmp = enc.jobs[i];
+                enc.jobs[i] = enc.jobs[k];
+                enc.jobs[k] = tmp;
+            }
+            Schedule schedule = enc.toSchedule();
+
+            ResourceOrder direct = new ResourceOrder(enc);
+            ResourceOrder fromSchedule = new ResourceOrder(schedule);
+            assert direct.hash() == fromSchedule.hash();
+            assert direct.toSchedule().makespan() == schedule.makespan();
+
+            JobNumbers back = new JobNumbers(direct);
+            assert back.toSchedule().makespan() == schedule.makespan();
+            assert new ResourceOrder(back).hash() == direct.hash();
+            assert Arrays.equals(new JobNumbers(schedule).toSchedule().tasksByStartTime(), schedule.tasksByStartTime());
+        }
+    }
+
+    @Test
+    public void testBatchEvaluator() throws IOException {
+        Instance instance = Instance.fromFile(Paths.get("instances/ft10"));
+        int n = instance.numJobs * instance.numTasks;
+        Random random = new Random(0);
+        // 10 random sequences: two full batches of 4 and a partial one
+        int[] population = new int[10 * n];
+        for(int p = 0 ; p < 10 ; p++) {
+            for(int k = 0 ; k < n ; k++) {
+                population[p * n + k] = k % instance.numJobs;
+            }
+            for(int k = n - 1 ; k > 0 ; k--) {
+                int other = p * n + random.nextInt(k + 1);
+                int tmp = population[p * n + k];
+                population[p * n + k] = population[other];
+                population[other] = tmp;
+            }
+        }
+        // reference: the makespans of the schedules of the sequences
+        int[] expected = new int[10];
+        for(int p = 0 ; p < 10 ; p++) {
+            JobNumbers enc = new JobNumbers(instance);
+            System.arraycopy(population, p * n, enc.jobs, 0, n);
+            enc.nextToSet = n;
+            expected[p] = enc.toSchedule().makespan();
+        }
+
+        BatchEvaluator evaluator = new BatchEvaluator(instance, 4);
+        int[] makespans = new int[10];
+        evaluator.evaluate(population, 0, 10, makespans);
+        assert Arrays.equals(makespans, expected);
+
+        // a batch already interleaved: sequences 3 to 6, position i of lane b in batch[i * 4 + b]
+        int[] batch = new int[4 * n];
+        for(int b = 0 ; b < 4 ; b++) {
+            for(int i = 0 ; i < n ; i++) {
+                batch[i * 4 + b] = population[(3 + b) * n + i];
+            }
+        }
+        int[] batchMakespans = new int[4];
+        evaluator.evaluateBatch(batch, batchMakespans);
+        assert Arrays.equals(batchMakespans, Arrays.copyOfRange(expected, 3, 7));
+    }
+
+    @Test
+    public void testResourceOrderHash() throws IOException {
+        Instance instance = Instance.fromFile(Paths.get("instances/ft10"));
+        ResourceOrder order = new ResourceOrder(new GreedyLRPTEST().solve(instance, System.currentTimeMillis() + 10).schedule);
+        long initial = order.hash();
+
+        ResourceOrder copy = order.copy();
+        copy.swap(3, 2, 5);
+        copy.swap(7, 0, 1);
+        long incremental = copy.hash();
+        copy.invalidateHash();
+        assert copy.hash() == incremental;
+        assert incremental != initial;
+
+        // swapping back gives the initial order, and its hash
+        copy.swap(7, 0, 1);
+        copy.swap(3, 2, 5);
+        assert copy.hash() == initial;
+        assert order.hash() == initial;
+
+        MakespanCache cache = new MakespanCache(16);
+        assert cache.makespan(copy) == order.toSchedule().makespan();
+        assert cache.makespan(order) == order.toSchedule().makespan();
+        assert cache.hits() == 1 && cache.misses() == 1;
+    }
+
+    @Test
+    public void testSolutionStore() throws IOException {
+        Instance instance = Instance.fromFile(Paths.get("instances/ft10"));
+        SolutionStore store = new SolutionStore(Files.createTempDirectory("store"));
+        assert store.load(instance) == null;
+
+        Schedule greedy = new GreedyLRPTEST().solve(instance, System.currentTimeMillis() + 10).schedule;
+        assert store.offer(greedy);
+        ResourceOrder loaded = store.load(instance);
+        assert loaded != null;
+        assert loaded.toSchedule().makespan() == new ResourceOrder(greedy).toSchedule().makespan();
+
+        // a worse solution does not replace the stored one
+        Schedule basic = new BasicSolver().solve(instance, System.currentTimeMillis() + 10).schedule;
+        assert basic.makespan() > greedy.makespan();
+        assert !store.offer(basic);
+        assert store.load(instance).toSchedule().makespan() == loaded.toSchedule().makespan();
+    }
+
 }
@@ -0,0 +1,151 @@
+package jobshop.solvers;
+
+import jobshop.IncumbentListener;
+import jobshop.Instance;
+import jobshop.Result;
+import jobshop.Solver;
+import jobshop.SolverContext;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public class SolverTests {
+
+    @Test
+    public void testBranchAndBoundProvesOptimality() throws IOException {
+        Instance aaa1 = Instance.fromFile(Paths.get("instances/aaa1"));
+        Result result = new BranchAndBoundSolver().solve(aaa1, System.currentTimeMillis() + 10000);
+        assert result.schedule.isValid();
+        assert result.cause == Result.ExitCause.ProvedOptimal;
+        assert result.schedule.makespan() == 11;
+
+        Instance ft06 = Instance.fromFile(Paths.get("instances/ft06"));
+        result = new BranchAndBoundSolver().solve(ft06, System.currentTimeMillis() + 10000);
+        assert result.schedule.isValid();
+        assert result.cause == Result.ExitCause.ProvedOptimal;
+        assert result.schedule.makespan() == 55;
+    }
+
+    @Test
+    public void testPortfolioStopsAtLowerBound() throws IOException {
+        Instance la01 = Instance.fromFile(Paths.get("instances/la01"));
+        Solver portfolio = new PortfolioSolver(new SimulatedAnnealingSolver(), new IslandTabouSolver(2, 100));
+        long start = System.currentTimeMillis();
+        Result result = portfolio.solve(la01, new SolverContext(start + 10000));
+        assert result.schedule.isValid();
+        assert result.schedule.makespan() == la01.lowerBound();
+        assert result.cause == Result.ExitCause.ProvedOptimal;
+        assert System.currentTimeMillis() - start < 5000;
+    }
+
+    @Test
+    public void testListenerReceivesImprovements() throws IOException {
+        Instance ft10 = Instance.fromFile(Paths.get("instances/ft10"));
+        List<Integer> makespans = new ArrayList<>();
+        IncumbentListener listener = (elapsed, makespan, iteration) -> makespans.add(makespan);
+        Result result = new SimulatedAnnealingSolver().solve(ft10,
+                new SolverContext(System.currentTimeMillis() + 200, 0, listener));
+        assert !makespans.isEmpty();
+        for(int i = 1 ; i < makespans.size() ; i++) {
+            assert makespans.get(i) < makespans.get(i - 1);
+        }
+        assert makespans.get(makespans.size() - 1) == result.schedule.makespan();
+        assert result.stats.accepted() > 0;
+        assert result.stats.acceptanceRate() <= 1;
+    }
+
+    @Test
+    public void testStatsCountTheSearch() throws IOException {
+        Instance ft10 = Instance.fromFile(Paths.get("instances/ft10"));
+        Result result = new IslandTabouSolver(2, 100).solve(ft10, System.currentTimeMillis() + 200);
+        assert result.stats.iterations() > 0;
+        assert result.stats.evaluations() >= result.stats.neighborsGenerated();
+        assert result.stats.neighborsGenerated() >= result.stats.iterations();
+        assert result.stats.improvements() > 0;
+        assert result.stats.timeToBestNanos() < 200_000_000L;
+    }
+
+    @Test
+    public void testGreedySolverIsThreadSafe() throws Exception {
+        Instance ft10 = Instance.fromFile(Paths.get("instances/ft10"));
+        Instance la16 = Instance.fromFile(Paths.get("instances/la16"));
+        Solver shared = new GreedyLRPTEST();
+        int ft10Makespan = shared.solve(ft10, Long.MAX_VALUE).schedule.makespan();
+        int la16Makespan = shared.solve(la16, Long.MAX_VALUE).schedule.makespan();
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        List<Future<Integer>> makespans = new ArrayList<>();
+        for(int i = 0 ; i < 20 ; i++) {
+            Instance instance = i % 2 == 0 ? ft10 : la16;
+            makespans.add(executor.submit(() -> shared.solve(instance, Long.MAX_VALUE).schedule.makespan()));
+        }
+        for(int i = 0 ; i < 20 ; i++) {
+            assert makespans.get(i).get() == (i % 2 == 0 ? ft10Makespan : la16Makespan);
+        }
+        executor.shutdown();
+    }
+
+    @Test
+    public void testGeneticSolverOnOneJob() throws IOException {
+        // a single job has a single sequence: the whole population is made of copies of the elite
+        Instance instance = Instance.fromString("1 3\n0 3 1 2 2 1");
+        Result result = new GeneticSolver(1).solve(instance, System.currentTimeMillis() + 100);
+        assert result.schedule.isValid();
+        assert result.schedule.makespan() == 6;
+
+        int n = instance.numJobs * instance.numTasks;
+        int[] population = new int[GeneticSolver.POPULATION_SIZE * n];
+        int[] makespans = new int[GeneticSolver.POPULATION_SIZE];
+        Arrays.fill(makespans, 6);
+        int[] offspring = new int[GeneticSolver.POPULATION_SIZE * n];
+        int[] offspringMakespans = new int[GeneticSolver.POPULATION_SIZE];
+        GeneticSolver.keepElite(population, makespans, offspring, offspringMakespans, n);
+        for(int e = 0 ; e < GeneticSolver.ELITE_SIZE ; e++) {
+            assert offspringMakespans[e] == 6;
+        }
+    }
+
+    @Test
+    public void testSolversReturnValidSchedules() throws IOException {
+        Instance instance = Instance.fromFile(Paths.get("instances/ft10"));
+        int greedy = new GreedyLRPTEST().solve(instance, System.currentTimeMillis() + 100).schedule.makespan();
+
+        Solver[] solvers = {
+                new SimulatedAnnealingSolver(),
+                new TabouSolver(Neighborhood.N7),
+                new IteratedLocalSearchSolver(),
+                new GeneticSolver(),
+                new IslandTabouSolver(2, 100),
+                new PathRelinkingSolver(2),
+                new ShiftingBottleneckSolver(),
+                new LargeNeighborhoodSolver(2),
+        };
+        for(Solver solver : solvers) {
+            Result result = solver.solve(instance, System.currentTimeMillis() + 200);
+            assert result.schedule.isValid();
+            assert result.schedule.makespan() <= greedy;
+        }
+    }
+
+    @Test
+    public void testTabuListKeepsTheLastExpiry() {
+        TabouSolver solver = new TabouSolver();
+        List<TabouSolver.tabouSwap> tabous = new ArrayList<>();
+        Swap swap = new Swap(0, 1, 2);
+        TabouSolver.addTabou(swap, 10, 0, tabous);
+        TabouSolver.addTabou(new Swap(1, 0, 1), 15, 5, tabous);
+        // the same swap made tabu again once expired
+        TabouSolver.addTabou(new Swap(0, 1, 2), 30, 20, tabous);
+        assert solver.getIterOKBySwap(swap, tabous) == 30;
+        // the expired entries are gone
+        assert tabous.size() == 1;
+        assert solver.getIterOKBySwap(new Swap(1, 0, 1), tabous) == -1;
+    }
+}